@@ -0,0 +1,74 @@
+package main.tetris.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.tetris.core.TetrisSimulator;
+import main.tetris.core.TetrisSimulatorArray;
+
+/**
+ * Measures one frame of many games, once with one {@link TetrisSimulator} per game
+ * and once with a single {@link TetrisSimulatorArray}. Both play the same games
+ * with the same random input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArrayBenchmark {
+	@Param({"1000", "10000"})
+	public int games;
+	
+	public TetrisSimulator[] simulators;
+	public TetrisSimulatorArray array;
+	public int[][] inputs = new int[64][];
+	public int index;
+	
+	@Setup
+	public void setup() {
+		long[] seeds = new long[games];
+		simulators = new TetrisSimulator[games];
+		for(int g = 0; g < games; g++) {
+			seeds[g] = BoardState.SEED + g;
+			simulators[g] = new TetrisSimulator(seeds[g]);
+		}
+		
+		array = new TetrisSimulatorArray(seeds);
+		
+		SplittableRandom random = new SplittableRandom(BoardState.SEED);
+		for(int i = 0; i < inputs.length; i++) {
+			inputs[i] = random.ints(games, 0, 256).toArray();
+		}
+	}
+	
+	@Benchmark
+	public int simulators() {
+		int[] input = inputs[index++ & (inputs.length - 1)];
+		for(int g = 0; g < games; g++) {
+			simulators[g].tick(input[g]);
+		}
+		
+		return simulators[0].getScore();
+	}
+	
+	@Benchmark
+	public int array() {
+		array.tick(inputs[index++ & (inputs.length - 1)]);
+		
+		return array.getScore(0);
+	}
+}
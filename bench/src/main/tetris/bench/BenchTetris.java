@@ -0,0 +1,102 @@
+package main.tetris.bench;
+
+import java.util.SplittableRandom;
+
+import main.tetris.core.TetrisSimulator;
+import main.tetris.core.Tetromino;
+
+/**
+ * A {@link TetrisSimulator} that can fill the playfield with one of the boards used
+ * by the benchmarks.
+ * 
+ * <ul>
+ *   <li><code>empty</code> has no cells at all.</li>
+ *   <li><code>half</code> has ten rows where most of the cells are filled.</li>
+ *   <li><code>garbage</code> has sixteen garbage rows with one hole in each row.</li>
+ * </ul>
+ */
+public class BenchTetris extends TetrisSimulator {
+	public static final String EMPTY = "empty";
+	public static final String HALF = "half";
+	public static final String GARBAGE = "garbage";
+	
+	public BenchTetris(long seed) {
+		super(seed);
+	}
+	
+	/**
+	 * Clears the playfield and fills it with the board specified.
+	 */
+	public void fill(String type, long seed) {
+		reset();
+		
+		SplittableRandom random = new SplittableRandom(seed);
+		switch(type) {
+			case EMPTY: {
+				break;
+			}
+			case HALF: {
+				for(int y = 0; y < 10; y++) {
+					int mask = random.nextInt(FULL_ROW) | random.nextInt(FULL_ROW);
+					
+					// Keep one cell empty so that the row is never full
+					mask &= ~(1 << random.nextInt(WIDTH));
+					
+					fillRow(y, mask, 1 + random.nextInt(7));
+				}
+				break;
+			}
+			case GARBAGE: {
+				int hole = random.nextInt(WIDTH);
+				for(int y = 0; y < 16; y++) {
+					if(random.nextInt(4) == 0) hole = random.nextInt(WIDTH);
+					fillRow(y, FULL_ROW & ~(1 << hole), 7);
+				}
+				break;
+			}
+			default: throw new IllegalArgumentException("Unknown board '" + type + "'");
+		}
+		
+		// None of the rows are full but clearRows has to forget that they were filled
+		clearRows();
+	}
+	
+	/**
+	 * Places the tetromino <code>t</code> at the specified location without checking
+	 * if the location is blocked.
+	 */
+	public void setPiece(Tetromino t, int x, int y, int r) {
+		this.current = t;
+		this.x = x;
+		this.y = y;
+		this.r = r;
+	}
+	
+	/**
+	 * Fills the row <code>y</code> completely.
+	 */
+	public void fillFullRow(int y) {
+		fillRow(y, FULL_ROW, 1);
+	}
+	
+	/**
+	 * Marks the rows from <code>low</code> to <code>high</code> as filled since the
+	 * last call to {@link #clearRows} without changing any cells.
+	 */
+	public void setFilled(int low, int high) {
+		dirtyLow = low;
+		dirtyHigh = high;
+	}
+	
+	/**
+	 * Returns the row above the highest filled cell.
+	 */
+	public int getTop() {
+		int top = 0;
+		for(int c = 0; c < WIDTH; c++) {
+			top = Math.max(top, heights[c]);
+		}
+		
+		return top;
+	}
+}
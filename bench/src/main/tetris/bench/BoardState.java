@@ -0,0 +1,45 @@
+package main.tetris.bench;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import main.tetris.core.TetrisState;
+
+/**
+ * The board shared by the benchmarks that run on a single playfield.
+ */
+@State(Scope.Thread)
+public class BoardState {
+	public static final long SEED = 0x7E7215L;
+	
+	@Param({ BenchTetris.EMPTY, BenchTetris.HALF, BenchTetris.GARBAGE })
+	public String board;
+	
+	public BenchTetris tetris;
+	
+	/**
+	 * This is the board right after the setup. A benchmark that changes the board has
+	 * to {@link #restore()} it, otherwise the board parameter only describes the first
+	 * invocations.
+	 */
+	public TetrisState saved;
+	
+	@Setup
+	public void setup() {
+		tetris = new BenchTetris(SEED);
+		tetris.fill(board, SEED);
+		
+		saved = new TetrisState(tetris);
+		tetris.saveState(saved);
+	}
+	
+	/**
+	 * Loads the board from the setup again and returns it.
+	 */
+	public BenchTetris restore() {
+		tetris.loadState(saved);
+		return tetris;
+	}
+}
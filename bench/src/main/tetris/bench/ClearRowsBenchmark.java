@@ -0,0 +1,68 @@
+package main.tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link main.tetris.core.Tetris#clearRows}.
+ * 
+ * <ul>
+ *   <li><code>clearNone</code> is the common case where the last piece did not fill any row.</li>
+ *   <li><code>clearTop</code> fills four rows on top of the stack and clears them again.</li>
+ *   <li><code>clearBottom</code> restores the board, fills the lowest empty cells of four
+ *       rows and clears them, moving the whole stack down. Subtract <code>restore</code>
+ *       to get the time of the clear alone.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClearRowsBenchmark {
+	@Benchmark
+	public int clearNone(BoardState state) {
+		BenchTetris tetris = state.tetris;
+		int top = tetris.getTop();
+		
+		// Pretend that a piece was placed on top of the stack
+		tetris.setFilled(top, top + 3);
+		
+		return tetris.clearRows();
+	}
+	
+	@Benchmark
+	public int clearTop(BoardState state) {
+		BenchTetris tetris = state.tetris;
+		int top = tetris.getTop();
+		
+		for(int i = 0; i < 4; i++) {
+			tetris.fillFullRow(top + i);
+		}
+		
+		return tetris.clearRows();
+	}
+	
+	@Benchmark
+	public int clearBottom(BoardState state) {
+		BenchTetris tetris = state.restore();
+		
+		for(int i = 0; i < 4; i++) {
+			tetris.fillFullRow(i);
+		}
+		
+		return tetris.clearRows();
+	}
+	
+	@Benchmark
+	public long restore(BoardState state) {
+		return state.restore().getVersion();
+	}
+}
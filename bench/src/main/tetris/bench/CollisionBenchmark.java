@@ -0,0 +1,67 @@
+package main.tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import main.tetris.core.Tetromino;
+
+/**
+ * Measures the collision checks used by movement, rotation and the move generator.
+ * Every operation checks all tetrominoes in all rotations in every column of the
+ * lowest twenty rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+	private static final Tetromino[] PIECES = Tetromino.values();
+	
+	@Benchmark
+	public int isLocationBlocked(BoardState state) {
+		BenchTetris tetris = state.tetris;
+		
+		int blocked = 0;
+		for(Tetromino t : PIECES) {
+			tetris.setPiece(t, 0, 0, 0);
+			
+			for(int r = 0; r < 4; r++) {
+				for(int y = 0; y < 20; y++) {
+					for(int x = -2; x < 10; x++) {
+						if(tetris.isLocationBlocked(x, y, r)) blocked ++;
+					}
+				}
+			}
+		}
+		
+		return blocked;
+	}
+	
+	@Benchmark
+	public void collisionRotation(BoardState state, Blackhole bh) {
+		BenchTetris tetris = state.tetris;
+		int y = tetris.getTop();
+		
+		// Rotating right next to the stack makes most rotations use a wall kick
+		for(Tetromino t : PIECES) {
+			for(int x = -1; x < 9; x++) {
+				for(int r = 0; r < 4; r++) {
+					tetris.setPiece(t, x, y, r);
+					bh.consume(tetris.collisionRotation((r + 1) & 3));
+					
+					tetris.setPiece(t, x, y, r);
+					bh.consume(tetris.collisionRotation((r + 2) & 3));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package main.tetris.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.tetris.core.TetrisPolicy;
+import main.tetris.core.TetrisSimulator;
+
+/**
+ * Compares placing a tetromino with {@link TetrisSimulator#place(int, int, boolean)} with
+ * ticking frame by frame until a tetromino is locked. The board is restored before every
+ * invocation so each placement is made on the board parameter. Subtract <code>restore</code>
+ * to get the time of the placement alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceBenchmark {
+	@State(Scope.Thread)
+	public static class Placements {
+		public final int[] x = new int[1 << 16];
+		public final int[] r = new int[1 << 16];
+		public final int[] input = new int[1 << 16];
+		public int index;
+		
+		@Setup
+		public void setup(BoardState board) {
+			SplittableRandom random = new SplittableRandom(BoardState.SEED);
+			TetrisPolicy policy = TetrisPolicy.random(BoardState.SEED);
+			
+			for(int i = 0; i < x.length; i++) {
+				x[i] = random.nextInt(-1, 9);
+				r[i] = random.nextInt(4);
+				input[i] = policy.getInput(board.tetris);
+			}
+		}
+	}
+	
+	@Benchmark
+	public int place(BoardState state, Placements placements) {
+		int i = placements.index++ & (placements.x.length - 1);
+		
+		// Placements outside of the playfield are rejected, which is part of the cost
+		return state.restore().place(placements.x[i], placements.r[i], false);
+	}
+	
+	@Benchmark
+	public long tickUntilLocked(BoardState state, Placements placements) {
+		TetrisSimulator tetris = state.restore();
+		
+		long pieces = tetris.getPieces();
+		while(tetris.getPieces() == pieces) {
+			tetris.tick(placements.input[placements.index++ & (placements.input.length - 1)]);
+		}
+		
+		return tetris.getPieces();
+	}
+	
+	@Benchmark
+	public int restore(BoardState state, Placements placements) {
+		int i = placements.index++ & (placements.x.length - 1);
+		
+		return state.restore().getScore() + placements.x[i] + placements.r[i];
+	}
+}
@@ -0,0 +1,55 @@
+package main.tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.tetris.core.TetrisRandomizer;
+import main.tetris.core.TetrisSimulator;
+import main.tetris.core.Tetromino;
+
+/**
+ * Measures {@link main.tetris.core.Tetris#generateRandomTetromino} with the different
+ * randomizers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RandomizerBenchmark {
+	@Param({ "bag", "bag2", "memoryless" })
+	public String randomizer;
+	
+	private TetrisSimulator tetris;
+	
+	@Setup
+	public void setup() {
+		tetris = new TetrisSimulator(BoardState.SEED);
+		
+		switch(randomizer) {
+			case "bag": tetris.setRandomizer(new TetrisRandomizer.Bag(1)); break;
+			case "bag2": tetris.setRandomizer(new TetrisRandomizer.Bag(2)); break;
+			case "memoryless": tetris.setRandomizer(new TetrisRandomizer.Memoryless()); break;
+			default: throw new IllegalArgumentException("Unknown randomizer '" + randomizer + "'");
+		}
+		
+		tetris.setSeed(BoardState.SEED);
+	}
+	
+	@Benchmark
+	public Tetromino generateRandomTetromino() {
+		return tetris.generateRandomTetromino();
+	}
+}
@@ -0,0 +1,72 @@
+package main.tetris.bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.tetris.TetrisRender;
+import main.tetris.core.TetrisSnapshot;
+
+/**
+ * Measures {@link TetrisRender} drawing a whole frame into a {@link BufferedImage}
+ * without a window.
+ * 
+ * <ul>
+ *   <li><code>render</code> takes a new snapshot and draws it like the window does.</li>
+ *   <li><code>renderSnapshot</code> draws the same snapshot every time.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+	private TetrisRender render;
+	private TetrisSnapshot snapshot;
+	private BufferedImage image;
+	private Graphics2D g;
+	
+	@Setup
+	public void setup(BoardState board) {
+		render = new TetrisRender(board.tetris);
+		render.setSize(TetrisRender.SIZE * 20, TetrisRender.SIZE * 21);
+		
+		image = new BufferedImage(render.getWidth(), render.getHeight(), BufferedImage.TYPE_INT_RGB);
+		g = image.createGraphics();
+		
+		snapshot = TetrisSnapshot.of(board.tetris, null);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		g.dispose();
+	}
+	
+	@Benchmark
+	public BufferedImage render() {
+		render.render(g);
+		
+		return image;
+	}
+	
+	@Benchmark
+	public BufferedImage renderSnapshot() {
+		render.render(g, snapshot);
+		
+		return image;
+	}
+}
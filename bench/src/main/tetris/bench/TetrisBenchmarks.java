@@ -0,0 +1,26 @@
+package main.tetris.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler so that the allocation rate of every
+ * benchmark is recorded. Accepts the same arguments as the JMH command line.
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar Collision -p board=garbage
+ * </pre>
+ */
+public class TetrisBenchmarks {
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+			.parent(new CommandLineOptions(args))
+			.addProfiler(GCProfiler.class)
+			.build();
+		
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,59 @@
+package main.tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.tetris.core.TetrisPolicy;
+import main.tetris.core.TetrisSimulator;
+
+/**
+ * Measures a single {@link TetrisSimulator#tick(int)} with random input on the board
+ * parameter. The board is restored before every tick so the game never moves away from
+ * it. Subtract <code>restore</code> to get the time of the tick alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+	@State(Scope.Thread)
+	public static class Inputs {
+		public final int[] input = new int[1 << 16];
+		public int index;
+		
+		@Setup
+		public void setup(BoardState board) {
+			// The inputs are generated before so that the policy is not measured
+			TetrisPolicy policy = TetrisPolicy.random(BoardState.SEED);
+			for(int i = 0; i < input.length; i++) {
+				input[i] = policy.getInput(board.tetris);
+			}
+		}
+	}
+	
+	@Benchmark
+	public int tick(BoardState state, Inputs inputs) {
+		TetrisSimulator tetris = state.restore();
+		tetris.tick(inputs.input[inputs.index++ & (inputs.input.length - 1)]);
+		
+		return tetris.getScore();
+	}
+	
+	@Benchmark
+	public int restore(BoardState state, Inputs inputs) {
+		TetrisSimulator tetris = state.restore();
+		
+		return tetris.getScore() + inputs.input[inputs.index++ & (inputs.input.length - 1)];
+	}
+}
@@ -1,18 +1,33 @@
-package main;
-
-import main.tetris.TetrisWindow;
-
-public class Main {
-	public static final boolean DEBUG = true;
-	
-	public static void main(String[] args) throws Exception {
-		new Main();
-	}
-	
-	public TetrisWindow window;
-	public Main() {
-		window = new TetrisWindow(60);
-		
-		window.initialize();
-	}
-}
+package main;
+
+import main.tetris.TetrisWindow;
+import main.tetris.core.TetrisHeadless;
+import main.tetris.server.TetrisServer;
+
+public class Main {
+	public static final boolean DEBUG = true;
+	
+	public static void main(String[] args) throws Exception {
+		for(String arg : args) {
+			if(arg.equals("--headless")) {
+				// The window is never touched so no AWT classes are loaded
+				TetrisHeadless.main(args);
+				return;
+			}
+			
+			if(arg.equals("--server")) {
+				TetrisServer.main(args);
+				return;
+			}
+		}
+		
+		new Main();
+	}
+	
+	public TetrisWindow window;
+	public Main() {
+		window = new TetrisWindow(60);
+		
+		window.initialize();
+	}
+}
@@ -1,46 +1,148 @@
-package main.tetris;
-
-import java.awt.event.FocusEvent;
-import java.awt.event.FocusListener;
-import java.awt.event.KeyEvent;
-import java.awt.event.KeyListener;
-
-public class Input implements KeyListener, FocusListener {
-	public static  boolean[] keys = new boolean[65535];
-	private static boolean[] last = new boolean[65535];
-	
-	public Input() {
-		
-	}
-	
-	public void keyPressed(KeyEvent e) {
-		int code = e.getKeyCode();
-		
-		if(!keys[code]) last[code] = true;
-		keys[code] = true;
-	}
-
-	public void keyReleased(KeyEvent e) {
-		int code = e.getKeyCode();
-		
-		last[code] = false;
-		keys[code] = false;
-	}
-	
-	public static boolean IsKeyDown(int id) {
-		boolean press = last[id];
-		last[id] = false;
-		return press;
-	}
-	
-	public void focusLost(FocusEvent e) {
-		for(int i = 0; i < 65535; i++) {
-			if(keys[i]) keys[i] = false;
-		}
-	}
-
-	public void focusGained(FocusEvent e) {
-		
-	}
-	public void keyTyped(KeyEvent e) {}
-}
+package main.tetris;
+
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+
+/**
+ * This class receives the key events from AWT and puts them into an {@link InputQueue}
+ * together with the time they happened. The simulation thread then calls {@link #poll}
+ * once every tick to get the keys held down during that frame.
+ * 
+ * <p>
+ * 
+ * A key that was pressed and released between two ticks is still reported as held
+ * for one tick, so short presses are never lost.
+ */
+public class Input implements KeyListener, FocusListener {
+	private static final int PRESSED = 1 << 31;
+	
+	/**
+	 * This event releases every key at once.
+	 */
+	private static final int RELEASE_ALL = ~PRESSED;
+	
+	public final KeyMap keymap;
+	private final InputQueue queue;
+	
+	/**
+	 * These fields are only used by the simulation thread. The held keys are
+	 * remembered by key code because {@link KeyMap} can bind several keys to the
+	 * same input bit, and the bit is only released when none of them are held.
+	 * Only bound keys are held, so the array never grows.
+	 */
+	private final int[] keys = new int[KeyMap.MAX_KEYS];
+	private int count;
+	private int held;
+	private int pressed;
+	private long latencyCount;
+	private long latencyTotal;
+	private long latencyMax;
+	
+	public Input() {
+		this(new KeyMap());
+	}
+	
+	public Input(KeyMap keymap) {
+		this.keymap = keymap;
+		this.queue = new InputQueue(1024);
+	}
+	
+	public void keyPressed(KeyEvent e) {
+		int code = e.getKeyCode();
+		if(keymap.get(code) != 0) queue.offer(code | PRESSED, System.nanoTime());
+	}
+
+	public void keyReleased(KeyEvent e) {
+		int code = e.getKeyCode();
+		if(keymap.get(code) != 0) queue.offer(code, System.nanoTime());
+	}
+	
+	/**
+	 * Applies every event that happened before <code>time</code> and returns the
+	 * input of the tick at that time. This must only be called from the simulation thread.
+	 * 
+	 * @see main.tetris.core.TetrisSimulatorImpl#tick(int)
+	 */
+	public int poll(long time) {
+		long now = System.nanoTime();
+		
+		while(!queue.isEmpty() && queue.peekTime() - time <= 0) {
+			int event = queue.peekEvent();
+			int code = event & ~PRESSED;
+			
+			if(event == RELEASE_ALL) {
+				count = 0;
+				held = 0;
+			} else if((event & PRESSED) != 0) {
+				int bit = keymap.get(code);
+				if((held & bit) != bit) {
+					long latency = now - queue.peekTime();
+					latencyTotal += latency;
+					latencyCount ++;
+					if(latency > latencyMax) latencyMax = latency;
+				}
+				
+				press(code);
+				pressed |= bit;
+			} else {
+				release(code);
+			}
+			
+			queue.remove();
+		}
+		
+		int input = held | pressed;
+		pressed = 0;
+		
+		return input;
+	}
+	
+	private void press(int code) {
+		// Held keys repeat their pressed events
+		for(int i = 0; i < count; i++) {
+			if(keys[i] == code) return;
+		}
+		
+		keys[count++] = code;
+		held |= keymap.get(code);
+	}
+	
+	private void release(int code) {
+		held = 0;
+		for(int i = 0; i < count; i++) {
+			if(keys[i] == code) {
+				keys[i--] = keys[--count];
+				continue;
+			}
+			
+			held |= keymap.get(keys[i]);
+		}
+	}
+	
+	/**
+	 * Returns the average time in nanoseconds between a key being pressed and
+	 * the tick that used it.
+	 */
+	public long getAverageLatency() {
+		return latencyCount == 0 ? 0:(latencyTotal / latencyCount);
+	}
+	
+	/**
+	 * Returns the longest time in nanoseconds between a key being pressed and
+	 * the tick that used it.
+	 */
+	public long getMaxLatency() {
+		return latencyMax;
+	}
+	
+	public void focusLost(FocusEvent e) {
+		queue.offer(RELEASE_ALL, System.nanoTime());
+	}
+
+	public void focusGained(FocusEvent e) {
+		
+	}
+	public void keyTyped(KeyEvent e) {}
+}
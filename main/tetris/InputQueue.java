@@ -0,0 +1,84 @@
+package main.tetris;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a lock free ring buffer of input events that is written by a single
+ * thread and read by a single other thread.
+ * 
+ * <p>
+ * 
+ * Every event is a single <code>int</code> together with the {@link System#nanoTime() time}
+ * it happened. When the buffer is full new events are dropped.
+ */
+public class InputQueue {
+	private final long[] times;
+	private final int[] events;
+	private final int mask;
+	
+	/**
+	 * <code>head</code> is the index of the next event to read and
+	 * <code>tail</code> is the index of the next event to write.
+	 */
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	
+	/**
+	 * Creates a queue that can hold <code>capacity</code> events. The capacity is
+	 * rounded up to the next power of two and is at least two.
+	 */
+	public InputQueue(int capacity) {
+		int size = capacity <= 2 ? 2:Integer.highestOneBit(capacity - 1) << 1;
+		
+		times = new long[size];
+		events = new int[size];
+		mask = size - 1;
+	}
+	
+	/**
+	 * Adds an event to the queue. This must only be called from the writing thread.
+	 * 
+	 * @return <code>false</code> if the queue was full and the event was dropped
+	 */
+	public boolean offer(int event, long time) {
+		long t = tail.get();
+		if(t - head.get() > mask) return false;
+		
+		times[(int)t & mask] = time;
+		events[(int)t & mask] = event;
+		tail.lazySet(t + 1);
+		
+		return true;
+	}
+	
+	/**
+	 * Returns <code>true</code> if there is an event to read.
+	 * This must only be called from the reading thread.
+	 */
+	public boolean isEmpty() {
+		return head.get() == tail.get();
+	}
+	
+	/**
+	 * Returns the time of the next event without removing it.
+	 * This must only be called from the reading thread.
+	 */
+	public long peekTime() {
+		return times[(int)head.get() & mask];
+	}
+	
+	/**
+	 * Returns the next event without removing it.
+	 * This must only be called from the reading thread.
+	 */
+	public int peekEvent() {
+		return events[(int)head.get() & mask];
+	}
+	
+	/**
+	 * Removes the next event. This must only be called from the reading thread.
+	 */
+	public void remove() {
+		head.lazySet(head.get() + 1);
+	}
+}
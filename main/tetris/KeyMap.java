@@ -0,0 +1,82 @@
+package main.tetris;
+
+import java.awt.event.KeyEvent;
+
+import main.tetris.core.TetrisSimulatorImpl;
+
+/**
+ * This class maps keyboard keys to the input bits used by {@link TetrisSimulatorImpl#tick(int)}.
+ * Every input bit can be bound to any number of keys, up to {@link #MAX_KEYS} keys in total.
+ */
+public class KeyMap {
+	/**
+	 * This is the largest amount of keys that can be bound. A key stays counted after it
+	 * has been {@link #unbind unbound}, so no more keys than this can ever be held down at once.
+	 */
+	public static final int MAX_KEYS = 32;
+	
+	private int[] keys = new int[0];
+	private int[] bits = new int[0];
+	
+	/**
+	 * Creates a key map with the default bindings.
+	 */
+	public KeyMap() {
+		bind(KeyEvent.VK_LEFT,  TetrisSimulatorImpl.LEFT);
+		bind(KeyEvent.VK_RIGHT, TetrisSimulatorImpl.RIGHT);
+		bind(KeyEvent.VK_W,     TetrisSimulatorImpl.HOLD);
+		bind(KeyEvent.VK_D,     TetrisSimulatorImpl.ROTATE_LEFT);
+		bind(KeyEvent.VK_A,     TetrisSimulatorImpl.ROTATE_RIGHT);
+		bind(KeyEvent.VK_S,     TetrisSimulatorImpl.ROTATE_FLIP);
+		bind(KeyEvent.VK_DOWN,  TetrisSimulatorImpl.SOFTDROP);
+		bind(KeyEvent.VK_SPACE, TetrisSimulatorImpl.HARDDROP);
+	}
+	
+	/**
+	 * Binds the key <code>code</code> to the input <code>bit</code>. If the key
+	 * was already bound its old binding is replaced.
+	 * 
+	 * @throws IllegalStateException if {@link #MAX_KEYS} other keys are already bound
+	 */
+	public synchronized void bind(int code, int bit) {
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] == code) {
+				bits[i] = bit;
+				return;
+			}
+		}
+		
+		if(keys.length == MAX_KEYS) throw new IllegalStateException("At most " + MAX_KEYS + " keys can be bound");
+		
+		int[] k = new int[keys.length + 1];
+		int[] b = new int[bits.length + 1];
+		System.arraycopy(keys, 0, k, 0, keys.length);
+		System.arraycopy(bits, 0, b, 0, bits.length);
+		k[keys.length] = code;
+		b[bits.length] = bit;
+		
+		keys = k;
+		bits = b;
+	}
+	
+	/**
+	 * Removes all keys bound to the input <code>bit</code>.
+	 */
+	public synchronized void unbind(int bit) {
+		for(int i = 0; i < keys.length; i++) {
+			if(bits[i] == bit) bits[i] = 0;
+		}
+	}
+	
+	/**
+	 * Returns the input bits bound to the key <code>code</code> or <code>0</code>
+	 * if the key is not bound.
+	 */
+	public synchronized int get(int code) {
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] == code) return bits[i];
+		}
+		
+		return 0;
+	}
+}
@@ -0,0 +1,137 @@
+package main.tetris;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * This class keeps pre rendered images of every tile drawn by {@link TetrisRender}
+ * so that a frame only has to copy images instead of filling shapes.
+ * 
+ * <p>
+ * 
+ * The images are only created again when the tile size or one of the colors changes.
+ */
+public class TetrisTiles {
+	public static final Color GHOST_COLOR = new Color(1, 1, 1, 0.3f);
+	public static final Color[] BOARD_COLOR = {
+		TetrisRender.getBrighter(Color.white, 0.30f),
+		TetrisRender.getBrighter(Color.white, 0.36f)
+	};
+	
+	private GraphicsConfiguration config;
+	private Color[] palette = new Color[0];
+	private int size = -1;
+	
+	private BufferedImage[] pieces;
+	private BufferedImage ghost;
+	private BufferedImage board;
+	private BufferedImage preview;
+	
+	public TetrisTiles(GraphicsConfiguration config) {
+		this.config = config;
+	}
+	
+	/**
+	 * Makes sure that all images uses the tile <code>size</code> and the
+	 * <code>colors</code> specified, otherwise all images are created again.
+	 */
+	public void validate(int size, Color[] colors) {
+		if(this.size == size && isSamePalette(colors)) return;
+		
+		this.size = size;
+		palette = colors.clone();
+		
+		pieces = new BufferedImage[colors.length];
+		for(int i = 0; i < colors.length; i++) {
+			pieces[i] = createTile(colors[i]);
+		}
+		
+		ghost = createTile(GHOST_COLOR);
+		
+		board = createImage(size * 10, size * 20, Transparency.OPAQUE);
+		Graphics2D g = board.createGraphics();
+		for(int y = 0; y < 20; y++) {
+			for(int x = 0; x < 10; x++) {
+				g.setColor(BOARD_COLOR[(x + y) & 1]);
+				g.fillRect(x * size, y * size, size, size);
+			}
+		}
+		g.dispose();
+		
+		preview = createImage(size * 4 + 8, size * 4 + 8, Transparency.OPAQUE);
+		g = preview.createGraphics();
+		g.setColor(BOARD_COLOR[1]);
+		g.fillRect(0, 0, size * 4 + 8, size * 4 + 8);
+		for(int y = 0; y < 4; y++) {
+			for(int x = 0; x < 4; x++) {
+				g.setColor(BOARD_COLOR[(x + y) & 1].brighter().brighter());
+				g.fillRect(x * size + 4, y * size + 4, size, size);
+			}
+		}
+		g.dispose();
+	}
+	
+	private boolean isSamePalette(Color[] colors) {
+		if(palette.length != colors.length) return false;
+		
+		for(int i = 0; i < colors.length; i++) {
+			if(palette[i] != colors[i]) return false;
+		}
+		
+		return true;
+	}
+	
+	private BufferedImage createTile(Color col) {
+		BufferedImage image = createImage(size, size, Transparency.TRANSLUCENT);
+		Graphics2D g = image.createGraphics();
+		TetrisRender.drawBox(g, col, 0, 0, size);
+		g.dispose();
+		
+		return image;
+	}
+	
+	private BufferedImage createImage(int width, int height, int transparency) {
+		if(config == null && !GraphicsEnvironment.isHeadless()) {
+			config = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+		}
+		
+		if(config != null) {
+			return config.createCompatibleImage(width, height, transparency);
+		}
+		
+		int type = transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB:BufferedImage.TYPE_INT_ARGB;
+		return new BufferedImage(width, height, type);
+	}
+	
+	/**
+	 * Returns the tile of the piece with the specified id.
+	 */
+	public BufferedImage getPiece(int id) {
+		return pieces[id];
+	}
+	
+	/**
+	 * Returns the tile used to draw the ghost piece.
+	 */
+	public BufferedImage getGhost() {
+		return ghost;
+	}
+	
+	/**
+	 * Returns the checkerboard background of the whole playfield.
+	 */
+	public BufferedImage getBoard() {
+		return board;
+	}
+	
+	/**
+	 * Returns the background of the next and hold boxes.
+	 */
+	public BufferedImage getPreview() {
+		return preview;
+	}
+}
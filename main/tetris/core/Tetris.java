@@ -1,375 +1,748 @@
-package main.tetris.core;
-
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-
-/**
- * This class is one of of the core classes of my tetris clone.
- */
-public class Tetris implements TetrisImpl {
-	/**
-	 * This is the current playfield containing all {@link Tetromino tetrominos} that has been placed.
-	 * 
-	 * <p>
-	 * 
-	 * This array has the dimension of <code>{@link #WIDTH} * {@link #HEIGHT}</code> 
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected final int[] board;
-	
-	/**
-	 * This is the height of the {@link #board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected final int HEIGHT;
-	
-	/**
-	 * This is the width of the {@link #board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected final int WIDTH;
-	
-	/**
-	 * DAS is an abbreviation for <a href="http://tetris.wikia.com/wiki/DAS">Delayed Auto Shift</a>
-	 * 
-	 * <p>
-	 * 
-	 * This field controlls the amount of frames waited after a left
-	 * or right move, after this amount has been reached the tetromino
-	 * will start moving every {@link #ARR} frames.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
-	 *      <a href="http://tetris.wikia.com/wiki/DAS">http://tetris.wikia.com/wiki/DAS</a>
-	 */
-	public int DAS = 5;
-	
-	/**
-	 * ARR is an abbreviation for <i>Auto Repeat Rate</i>
-	 * 
-	 * <p>
-	 * 
-	 * After waiting for {@link #DAS} the tetromino will start moving
-	 * every <i>ARR</i> frames.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int ARR = 8;
-	
-	/**
-	 * ARE is the <b><i>Entry delay</i></b> or <b><i>Spawn delay</i></b>
-	 * of a piece.
-	 * 
-	 * <p>
-	 * 
-	 * When a tetromino has been placed on board you will get a new one
-	 * and before you can play again the game will wait <i>ARE</i> frames.
-	 * 
-	 * <p>
-	 * 
-	 * ARE originates from the japanese word "あれ".
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
-	 *      <a href="http://tetris.wikia.com/wiki/ARE">http://tetris.wikia.com/wiki/ARE</a>
-	 */
-	public int ARE = 30;
-	
-	/**
-	 * This field is used in the formula to get the current
-	 * {@link #getLevelSpeed speed} of a tetromino falling.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected int level = 0;
-	
-	/**
-	 * This is the amount of lines that has been cleared from the
-	 * {@link #board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected int lines = 0;
-	
-	/**
-	 * This is the current score of the game. The score is computed by
-	 * a number of different factors.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
-	 *      <a href="http://tetris.wikia.com/wiki/Scoring">http://tetris.wikia.com/wiki/Scoring</a>
-	 */
-	protected int score = 0;
-	
-	/**
-	 * This is the current combo, the combo is determined by the amount
-	 * of back to back rows you have cleard.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected int combo = 0;
-	
-	/**
-	 * This is the current {@link Tetromino tetromino} being display
-	 * on the {@link #board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected Tetromino current;
-	
-	/**
-	 * During play, you have the option to switch your active
-	 * {@link Tetromino tetromino} to the last tetromino you swaped.
-	 * 
-	 * <p>
-	 * 
-	 * This action is called <a href="http://tetris.wikia.com/wiki/Hold_piece">holding</a>.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
-	 *      <a href="http://tetris.wikia.com/wiki/Hold_piece">http://tetris.wikia.com/wiki/Hold_piece</a>
-	 */
-	protected Tetromino holding;
-	
-	/**
-	 * This is the next {@link Tetromino tetromino} being sent to the screen.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected Tetromino next;
-	
-	/**
-	 * This is the rotation for the {@link #current current} tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected int r;
-	
-	/**
-	 * This is the x position for the {@link #current current} tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected int x;
-	
-	/**
-	 * This is the y position for the {@link #current current} tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected int y;
-	
-	/**
-	 * This initializes the <code>Tetris</code> class.
-	 * This class does not include any code for movement and game
-	 * mechanics, only {@link #board playfield} checks and settings.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public Tetris() {
-		board = new int[400];
-		HEIGHT = 40;
-		WIDTH  = 10;
-	}
-	
-	public double getLevelSpeed() {
-		return Math.pow(0.8 - (level - 1) * 0.007, level - 1);
-	}
-	
-	public void reset() {
-		for(int i = 0; i < WIDTH * HEIGHT; i++)
-			board[i] = 0;
-		
-		level = 0;
-		lines = 0;
-		score = 0;
-		
-		bag.clear();
-		
-		current = generateRandomTetromino();
-		next    = generateRandomTetromino();
-		holding = null;
-		
-		respawn();
-	}
-	
-	public void respawn() {
-		y = 18;
-		
-		if(current == Tetromino.O || current == Tetromino.I) x = 3;
-		else x = 2;
-		
-		r =  0;
-	}
-	
-	public boolean collisionMovement(int nx, int ny) {
-		if(isLocationBlocked(nx, ny, r)) return false;
-		x = nx;
-		y = ny;
-		
-		return true;
-	}
-	
-	public boolean collisionRotation(int nr) {
-		if(current == Tetromino.O) return false;
-		boolean flip = ((r + 1) & 3) != nr;
-		
-		int offset = nr * 10;
-		
-		if(!flip)
-			offset = r * 10;
-		
-		if(current == Tetromino.I) {
-			for(int i = 0; i < 5; i++) {
-				int xn = WallKickData_1[offset + i * 2    ];
-				int yn = WallKickData_1[offset + i * 2 + 1];
-				
-				if(!flip) {
-					xn *= -1;
-					yn *= -1;
-				}
-				
-				if(!isLocationBlocked(x + xn, y + yn, nr)) {
-					x += xn;
-					y += yn;
-					r  = nr;
-					return true;
-				}
-			}
-			
-			return false;
-		}
-		
-		for(int i = 0; i < 5; i++) {
-			int xn = WallKickData_0[offset + i * 2    ];
-			int yn = WallKickData_0[offset + i * 2 + 1];
-			
-			if(!flip) {
-				xn *= -1;
-				yn *= -1;
-			}
-			
-			if(!isLocationBlocked(x + xn, y + yn, nr)) {
-				x += xn;
-				y += yn;
-				r  = nr;
-				return true;
-			}
-		}
-		
-		return false;
-	}
-	
-	public boolean isLocationBlocked(int x, int y, int r) {
-		int tetromino = current.getRotated(r);
-		
-		for(int i = 0; i < 16; i++) {
-			int xp = (i &  3) + x;
-			int yp = (i >> 2) + y;
-			int bit = (tetromino >> i) & 1;
-			
-			if(bit < 1)
-				continue;
-			
-			if(yp < 0 || yp >= HEIGHT || xp < 0 || xp >= WIDTH
-					  || board[xp + yp * WIDTH] > 0)
-				return true;
-		}
-		
-		return false;
-	}
-	
-	public int clearRows() {
-		int offset = 0;
-		for(int i = 0; i < HEIGHT - 1; i++) {
-			
-			boolean full_row = true;
-			for(int j = 0; j < WIDTH; j++) {
-				if(board[j + (i + offset) * WIDTH] > 0) continue;
-				
-				full_row = false;
-				break;
-			}
-			
-			if(i + offset + 1 >= HEIGHT) break;
-			
-			for(int v = 0; v < WIDTH; v++) {
-				board[v + i * WIDTH] = board[v + (i + offset) * WIDTH];
-			}
-			
-			if(full_row) {
-				offset ++;
-				i --;
-			}
-		}
-		
-		lines += offset;
-		
-		return offset;
-	}
-	
-	private LinkedList<Tetromino> bag = new LinkedList<Tetromino>();
-	public Tetromino generateRandomTetromino() {
-		if(bag.size() == 0) {
-			List<Integer> ints = Arrays.asList(0, 1, 2, 3, 4, 5, 6);
-			Collections.shuffle(ints);
-			
-			for(int i : ints) bag.add(Tetromino.get(i));
-		}
-		
-		return bag.poll();
-	}
-	
-	public int getWidth() {
-		return WIDTH;
-	}
-	
-	public int getHeight() {
-		return HEIGHT;
-	}
-	
-	public int getLevel() {
-		return level;
-	}
-	
-	public int getLines() {
-		return lines;
-	}
-	
-	public int getScore() {
-		return score;
-	}
-	
-	public int getCombo() {
-		return combo;
-	}
-	
-	public int getRotation() {
-		return r;
-	}
-	
-	public int getX() {
-		return x;
-	}
-	
-	public int getY() {
-		return y;
-	}
-	
-	public Tetromino getCurrentTetromino() {
-		return current;
-	}
-	
-	public Tetromino getHoldTetromino() {
-		return holding;
-	}
-	
-	public Tetromino getNextTetromino() {
-		return next;
-	}
-	
-	public int[] getPlayfield() {
-		return Arrays.copyOf(board, WIDTH * HEIGHT);
-	}
-}
+package main.tetris.core;
+
+import java.util.Arrays;
+
+/**
+ * This class is one of of the core classes of my tetris clone.
+ */
+public class Tetris implements TetrisImpl {
+	/**
+	 * This is the current playfield containing all {@link Tetromino tetrominos} that has been placed.
+	 * 
+	 * <p>
+	 * 
+	 * This array has the dimension of <code>{@link #WIDTH} * {@link #HEIGHT}</code> 
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected final int[] board;
+	
+	/**
+	 * This is the bitboard version of the {@link #board playfield}.
+	 * 
+	 * <p>
+	 * 
+	 * Every row is stored as a single mask where the bit <code>x</code> is set
+	 * if the cell <code>(x, y)</code> is occupied. All collision checks are done
+	 * against this array and the {@link #board} array is only kept to know the
+	 * color of every cell.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected final int[] rows;
+	
+	/**
+	 * This is the mask of a row that has all {@link #WIDTH} cells filled.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected final int FULL_ROW;
+	
+	/**
+	 * This value is changed every time the {@link #board playfield} is changed.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long version;
+	
+	/**
+	 * This is the height of the {@link #board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected final int HEIGHT;
+	
+	/**
+	 * This is the width of the {@link #board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected final int WIDTH;
+	
+	/**
+	 * DAS is an abbreviation for <a href="http://tetris.wikia.com/wiki/DAS">Delayed Auto Shift</a>
+	 * 
+	 * <p>
+	 * 
+	 * This field controlls the amount of frames waited after a left
+	 * or right move, after this amount has been reached the tetromino
+	 * will start moving every {@link #ARR} frames.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/DAS">http://tetris.wikia.com/wiki/DAS</a>
+	 */
+	public int DAS = 5;
+	
+	/**
+	 * ARR is an abbreviation for <i>Auto Repeat Rate</i>
+	 * 
+	 * <p>
+	 * 
+	 * After waiting for {@link #DAS} the tetromino will start moving
+	 * every <i>ARR</i> frames.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int ARR = 8;
+	
+	/**
+	 * ARE is the <b><i>Entry delay</i></b> or <b><i>Spawn delay</i></b>
+	 * of a piece.
+	 * 
+	 * <p>
+	 * 
+	 * When a tetromino has been placed on board you will get a new one
+	 * and before you can play again the game will wait <i>ARE</i> frames.
+	 * 
+	 * <p>
+	 * 
+	 * ARE originates from the japanese word "あれ".
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/ARE">http://tetris.wikia.com/wiki/ARE</a>
+	 */
+	public int ARE = 30;
+	
+	/**
+	 * This field is used in the formula to get the current
+	 * {@link #getLevelSpeed speed} of a tetromino falling.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int level = 0;
+	
+	/**
+	 * This is the amount of lines that has been cleared from the
+	 * {@link #board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int lines = 0;
+	
+	/**
+	 * This is the current score of the game. The score is computed by
+	 * a number of different factors.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Scoring">http://tetris.wikia.com/wiki/Scoring</a>
+	 */
+	protected int score = 0;
+	
+	/**
+	 * This is the current combo, the combo is determined by the amount
+	 * of back to back rows you have cleard.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int combo = 0;
+	
+	/**
+	 * This is the current {@link Tetromino tetromino} being display
+	 * on the {@link #board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected Tetromino current;
+	
+	/**
+	 * During play, you have the option to switch your active
+	 * {@link Tetromino tetromino} to the last tetromino you swaped.
+	 * 
+	 * <p>
+	 * 
+	 * This action is called <a href="http://tetris.wikia.com/wiki/Hold_piece">holding</a>.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Hold_piece">http://tetris.wikia.com/wiki/Hold_piece</a>
+	 */
+	protected Tetromino holding;
+	
+	/**
+	 * This is the next {@link Tetromino tetromino} being sent to the screen.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected Tetromino next;
+	
+	/**
+	 * This is the {@link TetrisRandomizer randomizer} used to generate all
+	 * the {@link Tetromino tetrominos} of this game.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Random_Generator">http://tetris.wikia.com/wiki/Random_Generator</a>
+	 */
+	protected TetrisRandomizer randomizer;
+	
+	/**
+	 * This is the rotation for the {@link #current current} tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int r;
+	
+	/**
+	 * This is the x position for the {@link #current current} tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int x;
+	
+	/**
+	 * This is the y position for the {@link #current current} tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int y;
+	
+	/**
+	 * These are the random keys used to compute the <a href="https://en.wikipedia.org/wiki/Zobrist_hashing">Zobrist hash</a>
+	 * of the game. There is one key for every cell of the playfield and one key for every
+	 * tetromino, or no tetromino, as the {@link #current current}, {@link #holding held} and {@link #next next} piece.
+	 * 
+	 * <p>
+	 * 
+	 * The keys are generated from a fixed seed so a hash is the same between runs.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected static final long[] ZOBRIST_CELL = createKeys(400, 1);
+	protected static final long[] ZOBRIST_PIECE = createKeys(3 * 8, 2);
+	
+	/**
+	 * This is the Zobrist hash of all the filled cells on the {@link #board playfield}.
+	 * It is updated every time a cell is filled or a row is cleared.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long boardHash;
+	
+	/**
+	 * These arrays contains the height of every column and the amount of filled cells
+	 * in every column of the {@link #board playfield}. The height of a column is the
+	 * y position of its highest filled cell plus one.
+	 * 
+	 * <p>
+	 * 
+	 * They are updated every time a cell is filled or a row is cleared so
+	 * that the board features can be read without scanning the playfield.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected final int[] heights;
+	protected final int[] filled;
+	
+	/**
+	 * This is the sum of all column {@link #heights}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int aggregateHeight;
+	
+	/**
+	 * This is the amount of filled cells on the {@link #board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int filledCells;
+	
+	/**
+	 * This is the sum of the row transitions of all rows. A row transition
+	 * is an empty cell next to a filled cell or a wall.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int rowTransitions;
+	
+	/**
+	 * These are the lowest and highest rows that has been filled since the last call to
+	 * {@link #clearRows}. Only these rows can have become full.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int dirtyLow;
+	protected int dirtyHigh;
+	
+	/**
+	 * This is a mask of the rows removed by the last call to {@link #clearRows}
+	 * where the bit <code>y</code> is set if the row <code>y</code> was full.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long clearedRows;
+	
+	/**
+	 * This initializes the <code>Tetris</code> class.
+	 * This class does not include any code for movement and game
+	 * mechanics, only {@link #board playfield} checks and settings.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public Tetris() {
+		board = new int[400];
+		HEIGHT = 40;
+		WIDTH  = 10;
+		
+		rows = new int[HEIGHT];
+		FULL_ROW = (1 << WIDTH) - 1;
+		
+		heights = new int[WIDTH];
+		filled = new int[WIDTH];
+		
+		randomizer = new TetrisRandomizer.Bag(1);
+		randomizer.setSeed(RANDOM.nextLong());
+	}
+	
+	public double getLevelSpeed() {
+		return Math.pow(0.8 - (level - 1) * 0.007, level - 1);
+	}
+	
+	public int getGravity() {
+		return GRAVITY[Math.min(Math.max(level, 0), GRAVITY.length - 1)];
+	}
+	
+	public void reset() {
+		Arrays.fill(board, 0);
+		Arrays.fill(rows, 0);
+		boardHash = 0;
+		Arrays.fill(heights, 0);
+		Arrays.fill(filled, 0);
+		aggregateHeight = 0;
+		filledCells = 0;
+		rowTransitions = 0;
+		dirtyLow = HEIGHT;
+		dirtyHigh = -1;
+		clearedRows = 0;
+		version ++;
+		
+		level = 0;
+		lines = 0;
+		score = 0;
+		
+		randomizer.clear();
+		
+		current = generateRandomTetromino();
+		next    = generateRandomTetromino();
+		holding = null;
+		
+		respawn();
+	}
+	
+	public void respawn() {
+		y = 18;
+		
+		if(current == Tetromino.O || current == Tetromino.I) x = 3;
+		else x = 2;
+		
+		r =  0;
+	}
+	
+	public boolean collisionMovement(int nx, int ny) {
+		if(isLocationBlocked(nx, ny, r)) return false;
+		x = nx;
+		y = ny;
+		
+		return true;
+	}
+	
+	public boolean collisionRotation(int nr) {
+		if(current == Tetromino.O) return false;
+		boolean flip = ((r + 1) & 3) != nr;
+		
+		int offset = nr * 10;
+		
+		if(!flip)
+			offset = r * 10;
+		
+		if(current == Tetromino.I) {
+			for(int i = 0; i < 5; i++) {
+				int xn = WallKickData_1[offset + i * 2    ];
+				int yn = WallKickData_1[offset + i * 2 + 1];
+				
+				if(!flip) {
+					xn *= -1;
+					yn *= -1;
+				}
+				
+				if(!isLocationBlocked(x + xn, y + yn, nr)) {
+					x += xn;
+					y += yn;
+					r  = nr;
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		for(int i = 0; i < 5; i++) {
+			int xn = WallKickData_0[offset + i * 2    ];
+			int yn = WallKickData_0[offset + i * 2 + 1];
+			
+			if(!flip) {
+				xn *= -1;
+				yn *= -1;
+			}
+			
+			if(!isLocationBlocked(x + xn, y + yn, nr)) {
+				x += xn;
+				y += yn;
+				r  = nr;
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	public boolean isLocationBlocked(int x, int y, int r) {
+		int minX = x + current.getMinX(r);
+		int maxX = x + current.getMaxX(r);
+		int minY = current.getMinY(r);
+		int maxY = current.getMaxY(r);
+		
+		if(minX < 0 || maxX >= WIDTH || y + minY < 0 || y + maxY >= HEIGHT)
+			return true;
+		
+		// Shifting both masks by three keeps the shift positive when x is negative
+		int shift = x + 3;
+		for(int i = minY; i <= maxY; i++) {
+			if(((current.getRowMask(r, i) << shift) & (rows[y + i] << 3)) != 0)
+				return true;
+		}
+		
+		return false;
+	}
+	
+	public int getDropDistance() {
+		int landing = Integer.MIN_VALUE;
+		
+		for(int c = current.getMinX(r); c <= current.getMaxX(r); c++) {
+			int column = x + c;
+			if(column < 0 || column >= WIDTH) return scanDropDistance();
+			
+			// The lowest cell of this column lands on top of the column height
+			int a = heights[column] - current.getBottom(r, c);
+			
+			// If the tetromino is below the top of the column it could be
+			// under an overhang and the height map can't be used
+			if(a > y) return scanDropDistance();
+			if(a > landing) landing = a;
+		}
+		
+		return y - landing;
+	}
+	
+	/**
+	 * Returns the {@link #getDropDistance() drop distance} by checking every row below the
+	 * {@link #current current} tetromino until it is blocked.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int scanDropDistance() {
+		int a = y;
+		for(; a > -4; a--) {
+			if(isLocationBlocked(x, a - 1, r)) break;
+		}
+		
+		return y - a;
+	}
+	
+	public int clearRows() {
+		long cleared = 0;
+		
+		// Only the rows filled since the last call can have become full
+		int low = Math.max(dirtyLow, 0);
+		int high = Math.min(dirtyHigh, HEIGHT - 1);
+		for(int i = low; i <= high; i++) {
+			if(rows[i] == FULL_ROW) cleared |= 1L << i;
+		}
+		
+		dirtyLow = HEIGHT;
+		dirtyHigh = -1;
+		clearedRows = cleared;
+		
+		if(cleared == 0) return 0;
+		
+		int top = 0;
+		for(int c = 0; c < WIDTH; c++) {
+			top = Math.max(top, heights[c]);
+		}
+		
+		int offset = 0;
+		int i = Long.numberOfTrailingZeros(cleared);
+		while(i < top) {
+			if(((cleared >>> i) & 1) != 0) {
+				boardHash ^= hashRow(i, FULL_ROW);
+				offset ++;
+				i ++;
+				continue;
+			}
+			
+			// Move all rows until the next full row with one copy
+			int end = i;
+			while(end < top && ((cleared >>> end) & 1) == 0) {
+				if(rows[end] != 0) boardHash ^= hashRow(end, rows[end]) ^ hashRow(end - offset, rows[end]);
+				end ++;
+			}
+			
+			System.arraycopy(rows, i, rows, i - offset, end - i);
+			System.arraycopy(board, i * WIDTH, board, (i - offset) * WIDTH, (end - i) * WIDTH);
+			i = end;
+		}
+		
+		Arrays.fill(rows, top - offset, top, 0);
+		Arrays.fill(board, (top - offset) * WIDTH, top * WIDTH, 0);
+		
+		filledCells -= offset * WIDTH;
+		for(int c = 0; c < WIDTH; c++) {
+			filled[c] -= offset;
+			
+			// The highest cell can only have moved down
+			int h = heights[c];
+			while(h > 0 && ((rows[h - 1] >> c) & 1) == 0) h --;
+			
+			aggregateHeight -= heights[c] - h;
+			heights[c] = h;
+		}
+		
+		version ++;
+		lines += offset;
+		
+		return offset;
+	}
+	
+	public long getClearedRows() {
+		return clearedRows;
+	}
+	
+	/**
+	 * Fills the cells in <code>mask</code> on the row <code>y</code> with the specified
+	 * <code>color</code> and updates the {@link #boardHash hash} and board features.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected void fillRow(int y, int mask, int color) {
+		int row = rows[y];
+		mask &= ~row;
+		
+		if(mask == 0) return;
+		
+		if(y < dirtyLow) dirtyLow = y;
+		if(y > dirtyHigh) dirtyHigh = y;
+		
+		boardHash ^= hashRow(y, mask);
+		rowTransitions += getRowTransitions(row | mask) - getRowTransitions(row);
+		rows[y] = row | mask;
+		
+		for(; mask != 0; mask &= mask - 1) {
+			int c = Integer.numberOfTrailingZeros(mask);
+			board[c + y * WIDTH] = color;
+			
+			filled[c] ++;
+			filledCells ++;
+			if(y >= heights[c]) {
+				aggregateHeight += y + 1 - heights[c];
+				heights[c] = y + 1;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the amount of row transitions of a row. The walls count as filled
+	 * cells and empty rows have no transitions.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int getRowTransitions(int mask) {
+		if(mask == 0) return 0;
+		
+		int row = (mask << 1) | 1 | (1 << (WIDTH + 1));
+		return Integer.bitCount((row ^ (row >>> 1)) & ((1 << (WIDTH + 1)) - 1));
+	}
+	
+	/**
+	 * Returns the Zobrist hash of the cells in <code>mask</code> placed on the row <code>y</code>.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long hashRow(int y, int mask) {
+		long hash = 0;
+		for(; mask != 0; mask &= mask - 1) {
+			hash ^= ZOBRIST_CELL[Integer.numberOfTrailingZeros(mask) + y * WIDTH];
+		}
+		
+		return hash;
+	}
+	
+	private static long[] createKeys(int length, long seed) {
+		long[] keys = new long[length];
+		
+		long z = seed;
+		for(int i = 0; i < length; i++) {
+			z += 0x9e3779b97f4a7c15L;
+			long k = z;
+			k = (k ^ (k >>> 30)) * 0xbf58476d1ce4e5b9L;
+			k = (k ^ (k >>> 27)) * 0x94d049bb133111ebL;
+			keys[i] = k ^ (k >>> 31);
+		}
+		
+		return keys;
+	}
+	
+	public Tetromino generateRandomTetromino() {
+		return randomizer.next();
+	}
+	
+	public void setSeed(long seed) {
+		randomizer.setSeed(seed);
+	}
+	
+	/**
+	 * This method changes the {@link #randomizer randomizer} used to generate new pieces.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Random_Generator">http://tetris.wikia.com/wiki/Random_Generator</a>
+	 */
+	public void setRandomizer(TetrisRandomizer randomizer) {
+		this.randomizer = randomizer;
+	}
+	
+	public TetrisRandomizer getRandomizer() {
+		return randomizer;
+	}
+	
+	public int getWidth() {
+		return WIDTH;
+	}
+	
+	public int getHeight() {
+		return HEIGHT;
+	}
+	
+	public int getLevel() {
+		return level;
+	}
+	
+	public int getLines() {
+		return lines;
+	}
+	
+	public int getScore() {
+		return score;
+	}
+	
+	public int getCombo() {
+		return combo;
+	}
+	
+	public int getRotation() {
+		return r;
+	}
+	
+	public int getX() {
+		return x;
+	}
+	
+	public int getY() {
+		return y;
+	}
+	
+	public Tetromino getCurrentTetromino() {
+		return current;
+	}
+	
+	public Tetromino getHoldTetromino() {
+		return holding;
+	}
+	
+	public Tetromino getNextTetromino() {
+		return next;
+	}
+	
+	public int[] getPlayfield() {
+		return Arrays.copyOf(board, WIDTH * HEIGHT);
+	}
+	
+	public int getCell(int x, int y) {
+		return board[x + y * WIDTH];
+	}
+	
+	public int getRowMask(int y) {
+		return rows[y];
+	}
+	
+	public void getRow(int y, int[] dest) {
+		System.arraycopy(board, y * WIDTH, dest, 0, WIDTH);
+	}
+	
+	public long getVersion() {
+		return version;
+	}
+	
+	public int getColumnHeight(int x) {
+		return heights[x];
+	}
+	
+	public int getColumnHoles(int x) {
+		return heights[x] - filled[x];
+	}
+	
+	public int getHoles() {
+		return aggregateHeight - filledCells;
+	}
+	
+	public int getAggregateHeight() {
+		return aggregateHeight;
+	}
+	
+	public int getRowTransitions() {
+		return rowTransitions;
+	}
+	
+	public int getBumpiness() {
+		int bumpiness = 0;
+		for(int i = 1; i < WIDTH; i++) {
+			bumpiness += Math.abs(heights[i] - heights[i - 1]);
+		}
+		
+		return bumpiness;
+	}
+	
+	public int getWellDepth(int x) {
+		int left  = x > 0         ? heights[x - 1]:HEIGHT;
+		int right = x < WIDTH - 1 ? heights[x + 1]:HEIGHT;
+		int depth = Math.min(left, right) - heights[x];
+		
+		return depth > 0 ? depth:0;
+	}
+	
+	public void getFeatures(int[] dest) {
+		int max = 0;
+		int wells = 0;
+		for(int i = 0; i < WIDTH; i++) {
+			max = Math.max(max, heights[i]);
+			wells += getWellDepth(i);
+		}
+		
+		dest[FEATURE_AGGREGATE_HEIGHT] = aggregateHeight;
+		dest[FEATURE_HOLES] = getHoles();
+		dest[FEATURE_BUMPINESS] = getBumpiness();
+		dest[FEATURE_ROW_TRANSITIONS] = rowTransitions;
+		dest[FEATURE_MAX_HEIGHT] = max;
+		dest[FEATURE_WELLS] = wells;
+	}
+	
+	public long getBoardHash() {
+		return boardHash;
+	}
+	
+	public long getStateHash() {
+		long hash = boardHash;
+		hash ^= ZOBRIST_PIECE[     (current == null ? 7:current.id)];
+		hash ^= ZOBRIST_PIECE[ 8 + (holding == null ? 7:holding.id)];
+		hash ^= ZOBRIST_PIECE[16 + (next    == null ? 7:next.id)];
+		hash ^= randomizer.hash();
+		
+		return hash;
+	}
+}
@@ -0,0 +1,181 @@
+package main.tetris.core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class plays a large amount of independent {@link TetrisSimulator} games
+ * without a window and as fast as possible.
+ * 
+ * <p>
+ * 
+ * The games are split into small groups and played on a {@link ForkJoinPool}
+ * so idle threads can steal work from busy ones. Every game gets its own seed,
+ * used both for the pieces and for its {@link TetrisPolicy} that decides the input
+ * of every frame, so running a batch twice gives the same results.
+ */
+public class TetrisBatch {
+	/**
+	 * This interface creates the {@link TetrisPolicy policy} of every game.
+	 */
+	public interface PolicyFactory {
+		public TetrisPolicy create(int game, long seed);
+	}
+	
+	/**
+	 * This is the maximum amount of frames a single game is allowed to run
+	 * before it gets stopped. The default is ten minutes of game time.
+	 */
+	public long maxFrames = 60 * 60 * 10;
+	
+	/**
+	 * This is the amount of games a single task will play before it
+	 * stops splitting itself into smaller tasks.
+	 */
+	public int threshold = 8;
+	
+	private final int games;
+	private final long seed;
+	private final PolicyFactory policies;
+	
+	private final long[] frames;
+	private final int[] scores;
+	private final int[] lines;
+	
+	private long elapsed;
+	
+	public TetrisBatch(int games, long seed, PolicyFactory policies) {
+		this.games = games;
+		this.seed = seed;
+		this.policies = policies;
+		
+		frames = new long[games];
+		scores = new int[games];
+		lines  = new int[games];
+	}
+	
+	/**
+	 * Plays all games on the {@link ForkJoinPool#commonPool() common pool}.
+	 */
+	public void run() {
+		run(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Plays all games on the specified <code>pool</code> and waits for them to finish.
+	 */
+	public void run(ForkJoinPool pool) {
+		long start = System.nanoTime();
+		pool.invoke(new Task(0, games));
+		elapsed = System.nanoTime() - start;
+	}
+	
+	/**
+	 * Plays the game with the specified index until the game is over or
+	 * it has been running for {@link #maxFrames} frames.
+	 */
+	protected void play(int game) {
+		long gameSeed = getSeed(game);
+		
+		TetrisSimulator tetris = new TetrisSimulator(gameSeed);
+		tetris.autoReset = false;
+		
+		TetrisPolicy policy = policies.create(game, gameSeed);
+		while(!tetris.isGameOver() && tetris.getFrame() < maxFrames) {
+			tetris.tick(policy.getInput(tetris));
+		}
+		
+		frames[game] = tetris.getFrame();
+		scores[game] = tetris.getScore();
+		lines[game]  = tetris.getLines();
+	}
+	
+	/**
+	 * Returns the seed of the game with the specified index. Every game gets
+	 * a different seed that is mixed from the seed of this batch.
+	 */
+	public long getSeed(int game) {
+		long z = seed + (game + 1) * 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	public int getGames() {
+		return games;
+	}
+	
+	public long getFrames(int game) {
+		return frames[game];
+	}
+	
+	public int getScore(int game) {
+		return scores[game];
+	}
+	
+	public int getLines(int game) {
+		return lines[game];
+	}
+	
+	public long getTotalFrames() {
+		long total = 0;
+		for(long f : frames) total += f;
+		return total;
+	}
+	
+	/**
+	 * Returns the time the last {@link #run} took in nanoseconds.
+	 */
+	public long getElapsedTime() {
+		return elapsed;
+	}
+	
+	public double getGamesPerSecond() {
+		return games / (elapsed / 1e9);
+	}
+	
+	public double getFramesPerSecond() {
+		return getTotalFrames() / (elapsed / 1e9);
+	}
+	
+	public String toString() {
+		return String.format("%d games, %d frames in %.3f s (%.1f games/s, %.0f frames/s)",
+			games, getTotalFrames(), elapsed / 1e9, getGamesPerSecond(), getFramesPerSecond()
+		);
+	}
+	
+	private class Task extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int start;
+		private final int end;
+		
+		private Task(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+		
+		protected void compute() {
+			if(end - start <= threshold) {
+				for(int i = start; i < end; i++) play(i);
+				return;
+			}
+			
+			int mid = (start + end) >>> 1;
+			invokeAll(new Task(start, mid), new Task(mid, end));
+		}
+	}
+	
+	public static void main(String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]):10000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]):0;
+		
+		TetrisBatch batch = new TetrisBatch(games, seed, new PolicyFactory() {
+			public TetrisPolicy create(int game, long seed) {
+				return TetrisPolicy.random(seed);
+			}
+		});
+		
+		batch.run();
+		System.out.println(batch);
+	}
+}
@@ -0,0 +1,217 @@
+package main.tetris.core;
+
+/**
+ * A {@link TetrisPolicy} that places every tetromino where the playfield looks the best
+ * afterwards. This is used to play long games without a window, for example when
+ * measuring how fast the simulator is.
+ * 
+ * <p>
+ * 
+ * When a new tetromino spawns every placement found by the {@link TetrisMoveGenerator} is
+ * tried on the game itself and undone with {@link TetrisSimulatorImpl#loadState loadState}.
+ * The playfield is rated by its aggregate height, holes, bumpiness and the amount of
+ * cleared rows. The bot then presses the moves of the best placement one at a time,
+ * releasing a key for one frame before it is pressed again, and finally uses harddrop.
+ * Softdrops are only pressed when the tetromino has to be tucked under another block.
+ * 
+ * <p>
+ * 
+ * A bot must only be used by one game and never holds a tetromino.
+ * 
+ * @see <a href="https://codemyroad.wordpress.com/2013/04/14/tetris-ai-the-near-perfect-player/">https://codemyroad.wordpress.com/2013/04/14/tetris-ai-the-near-perfect-player/</a>
+ */
+public class TetrisBot implements TetrisPolicy {
+	public static final double HEIGHT_WEIGHT = -0.510066;
+	public static final double LINES_WEIGHT = 0.760666;
+	public static final double HOLES_WEIGHT = -0.35663;
+	public static final double BUMPINESS_WEIGHT = -0.184483;
+	
+	private final TetrisMoveGenerator generator;
+	private final TetrisState state;
+	private final int[] path;
+	private final TetrisTranspositionTable table;
+	
+	private long pieces = -1;
+	private int length;
+	private int index;
+	private int last;
+	
+	/**
+	 * Creates a bot for games with the same playfield size as <code>tetris</code>.
+	 */
+	public TetrisBot(TetrisImpl tetris) {
+		this(tetris, null);
+	}
+	
+	/**
+	 * Creates a bot that remembers the best placement of every position it has searched in
+	 * <code>table</code>. The table can be shared by any amount of bots on any amount of threads,
+	 * and a bot plays exactly the same with or without it.
+	 */
+	public TetrisBot(TetrisImpl tetris, TetrisTranspositionTable table) {
+		generator = new TetrisMoveGenerator(tetris);
+		state = new TetrisState(tetris);
+		path = new int[tetris.getWidth() * tetris.getHeight() * 4];
+		this.table = table;
+	}
+	
+	public int getInput(TetrisSimulator tetris) {
+		if(tetris.getPieces() != pieces) {
+			plan(tetris);
+		}
+		
+		if(index < length) {
+			int move = path[index];
+			
+			// A key has to be released before it counts again
+			if(getKeys(move) == getKeys(last)) {
+				last = 0;
+				return 0;
+			}
+			
+			// Softdrop does nothing until the tetromino has spawned so the move has to wait
+			if(move == TetrisSimulatorImpl.SOFTDROP && tetris.frame + 1 - tetris.lastSpawnFrame < tetris.ARE) {
+				last = 0;
+				return 0;
+			}
+			
+			last = move;
+			index ++;
+			return move;
+		}
+		
+		// Harddrop is ignored while the tetromino is waiting to spawn so it is held down
+		return TetrisSimulatorImpl.HARDDROP;
+	}
+	
+	/**
+	 * Finds the best placement of the current tetromino of <code>tetris</code> and
+	 * stores the moves needed to reach it.
+	 */
+	protected void plan(TetrisSimulator tetris) {
+		pieces = tetris.getPieces();
+		length = 0;
+		index = 0;
+		last = 0;
+		
+		int best = findPlacement(tetris);
+		if(best < 0) return;
+		
+		length = generator.getPath(best, path);
+		
+		// The harddrop at the end replaces the last softdrops
+		while(length > 0 && path[length - 1] == TetrisSimulatorImpl.SOFTDROP) {
+			length --;
+		}
+	}
+	
+	/**
+	 * Places the current tetromino of <code>tetris</code> at the best placement with
+	 * {@link TetrisSimulator#place(int, int, int, boolean) place} without simulating any frames.
+	 * Returns the amount of cleared rows, <code>-1</code> if there was no placement or
+	 * {@link TetrisSimulatorImpl#RESET RESET} if the game topped out and was reset.
+	 */
+	public int place(TetrisSimulator tetris) {
+		int best = findPlacement(tetris);
+		if(best < 0) return -1;
+		
+		return tetris.place(generator.getX(best), generator.getY(best), generator.getRotation(best), false);
+	}
+	
+	/**
+	 * Returns the index of the best placement found by the {@link TetrisMoveGenerator}
+	 * or <code>-1</code> if the current tetromino can't be placed anywhere.
+	 */
+	protected int findPlacement(TetrisSimulator tetris) {
+		int count = generator.generate(tetris);
+		if(count == 0) return -1;
+		
+		long key = 0;
+		if(table != null) {
+			key = getKey(tetris);
+			
+			long entry = table.probe(key);
+			if(entry != 0) {
+				int x = TetrisTranspositionTable.getX(entry);
+				int y = TetrisTranspositionTable.getY(entry);
+				int r = TetrisTranspositionTable.getRotation(entry);
+				
+				// A different position with the same key is found by checking that the placement exists
+				for(int i = 0; i < count; i++) {
+					if(generator.getX(i) == x && generator.getY(i) == y && generator.getRotation(i) == r) return i;
+				}
+			}
+		}
+		
+		tetris.saveState(state);
+		
+		// Resetting the game while trying a placement would make a loss look like an empty playfield
+		tetris.autoReset = false;
+		
+		int best = 0;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for(int i = 0; i < count; i++) {
+			tetris.x = generator.getX(i);
+			tetris.y = generator.getY(i);
+			tetris.r = generator.getRotation(i);
+			tetris.writeToArray();
+			
+			double score = evaluate(tetris);
+			if(score > bestScore) {
+				bestScore = score;
+				best = i;
+			}
+			
+			tetris.loadState(state);
+		}
+		
+		if(table != null) {
+			table.store(key, (int)Math.round(bestScore * 1000), generator.getX(best), generator.getY(best),
+				generator.getRotation(best), false, 1
+			);
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Returns the key of the search done by {@link #findPlacement}. The key covers the playfield,
+	 * the current, held and next tetromino, whether hold has been used and where the search starts from.
+	 */
+	private static long getKey(TetrisSimulator tetris) {
+		long position = (tetris.x + 3) | (tetris.y + 3) << 6 | tetris.r << 12 | (tetris.isSwitched() ? 1:0) << 14;
+		
+		return tetris.getBoardHash()
+			^ Tetris.ZOBRIST_PIECE[     (tetris.current == null ? 7:tetris.current.id)]
+			^ Tetris.ZOBRIST_PIECE[ 8 + (tetris.holding == null ? 7:tetris.holding.id)]
+			^ Tetris.ZOBRIST_PIECE[16 + (tetris.next    == null ? 7:tetris.next.id)]
+			^ (position + 1) * 0x9e3779b97f4a7c15L;
+	}
+	
+	/**
+	 * Returns the keys that share the state of <code>move</code>. Moving left and right
+	 * uses the same DAS timer and all rotations wait for every rotation key to be released.
+	 */
+	private static int getKeys(int move) {
+		if((move & (TetrisSimulatorImpl.LEFT | TetrisSimulatorImpl.RIGHT)) != 0)
+			return TetrisSimulatorImpl.LEFT | TetrisSimulatorImpl.RIGHT;
+		
+		if((move & (TetrisSimulatorImpl.ROTATE_LEFT | TetrisSimulatorImpl.ROTATE_RIGHT | TetrisSimulatorImpl.ROTATE_FLIP)) != 0)
+			return TetrisSimulatorImpl.ROTATE_LEFT | TetrisSimulatorImpl.ROTATE_RIGHT | TetrisSimulatorImpl.ROTATE_FLIP;
+		
+		return move;
+	}
+	
+	/**
+	 * Rates the playfield of <code>tetris</code> right after a tetromino was locked.
+	 * A higher value is better.
+	 */
+	protected double evaluate(TetrisSimulator tetris) {
+		if(tetris.isGameOver()) return -1e9;
+		
+		return HEIGHT_WEIGHT * tetris.getAggregateHeight()
+			+ LINES_WEIGHT * Long.bitCount(tetris.getClearedRows())
+			+ HOLES_WEIGHT * tetris.getHoles()
+			+ BUMPINESS_WEIGHT * tetris.getBumpiness();
+	}
+}
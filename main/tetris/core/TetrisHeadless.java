@@ -0,0 +1,138 @@
+package main.tetris.core;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * This class plays a single {@link TetrisSimulator} game without a window as fast
+ * as possible and prints how many ticks and pieces were simulated every second.
+ * No AWT classes are loaded so it starts fast and runs on machines without a display.
+ * 
+ * <p>
+ * 
+ * The input comes from one of these sources:
+ * 
+ * <ul>
+ *   <li><code>--policy bot</code> uses a {@link TetrisBot}. This is the default.</li>
+ *   <li><code>--policy random</code> uses {@link TetrisPolicy#random random} input.</li>
+ *   <li><code>--replay &lt;file&gt;</code> plays a recorded {@link TetrisReplay} and verifies it.</li>
+ * </ul>
+ * 
+ * The other arguments are <code>--frames &lt;n&gt;</code>, the maximum amount of ticks,
+ * <code>--seed &lt;n&gt;</code> and <code>--reset</code> that keeps playing after the game is lost.
+ * With <code>--macro</code> the bot places every tetromino directly with
+ * {@link TetrisSimulator#place(int, int, int, boolean) place} instead of playing frame by frame,
+ * and <code>--frames</code> is the maximum amount of pieces.
+ */
+public class TetrisHeadless {
+	/**
+	 * This is the default maximum amount of ticks, a bit more than four and a half hours of game time.
+	 */
+	public static final long DEFAULT_FRAMES = 1000000;
+	
+	public static void main(String[] args) throws IOException {
+		String policy = "bot";
+		String replay = null;
+		long frames = DEFAULT_FRAMES;
+		long seed = 0;
+		boolean reset = false;
+		boolean macro = false;
+		
+		for(int i = 0; i < args.length; i++) {
+			switch(args[i]) {
+				case "--headless": break;
+				case "--policy": policy = getValue(args, ++i); break;
+				case "--replay": replay = getValue(args, ++i); break;
+				case "--frames": frames = Long.parseLong(getValue(args, ++i)); break;
+				case "--seed": seed = Long.parseLong(getValue(args, ++i)); break;
+				case "--reset": reset = true; break;
+				case "--macro": macro = true; break;
+				default: throw new IllegalArgumentException("Unknown argument '" + args[i] + "'");
+			}
+		}
+		
+		if(replay != null) {
+			playReplay(replay);
+			return;
+		}
+		
+		TetrisSimulator tetris = new TetrisSimulator(seed);
+		tetris.autoReset = reset;
+		
+		TetrisPolicy input;
+		switch(policy) {
+			case "bot": input = new TetrisBot(tetris); break;
+			case "random": input = TetrisPolicy.random(seed); break;
+			default: throw new IllegalArgumentException("Unknown policy '" + policy + "'");
+		}
+		
+		if(macro) {
+			if(!(input instanceof TetrisBot)) {
+				throw new IllegalArgumentException("Only the bot can play with --macro");
+			}
+			
+			playMacro((TetrisBot)input, tetris, frames);
+			return;
+		}
+		
+		long start = System.nanoTime();
+		long ticks = 0;
+		while(ticks < frames && !tetris.isGameOver()) {
+			tetris.tick(input.getInput(tetris));
+			ticks ++;
+		}
+		
+		print(policy, tetris, ticks, System.nanoTime() - start);
+	}
+	
+	private static void playMacro(TetrisBot bot, TetrisSimulator tetris, long pieces) {
+		long start = System.nanoTime();
+		while(tetris.getPieces() < pieces && !tetris.isGameOver()) {
+			// A game that was reset keeps playing like it does with the other policies
+			if(bot.place(tetris) == -1) break;
+		}
+		
+		print("macro", tetris, 0, System.nanoTime() - start);
+	}
+	
+	private static void playReplay(String file) throws IOException {
+		TetrisReplay replay = TetrisReplay.read(Paths.get(file));
+		
+		long start = System.nanoTime();
+		TetrisSimulator tetris = replay.play();
+		long time = System.nanoTime() - start;
+		
+		print("replay", tetris, replay.getFrames(), time);
+		
+		if(!replay.verify(tetris)) {
+			System.out.println("Replay '" + file + "' did not match");
+		}
+	}
+	
+	private static void print(String source, TetrisSimulator tetris, long ticks, long time) {
+		double seconds = time / 1e9;
+		
+		if(ticks > 0) {
+			System.out.printf("%s: %d ticks, %d pieces in %.3f s (%.0f ticks/s, %.0f pieces/s)%n",
+				source, ticks, tetris.getPieces(), seconds, ticks / seconds, tetris.getPieces() / seconds
+			);
+		} else {
+			System.out.printf("%s: %d pieces in %.3f s (%.0f pieces/s)%n",
+				source, tetris.getPieces(), seconds, tetris.getPieces() / seconds
+			);
+		}
+		
+		System.out.printf("frame %d, score %d, lines %d, level %d, holes %d, height %d, game over %b%n",
+			tetris.getFrame(), tetris.getScore(), tetris.getLines(), tetris.getLevel(),
+			tetris.getHoles(), tetris.getAggregateHeight(), tetris.isGameOver()
+		);
+	}
+	
+	private static String getValue(String[] args, int index) {
+		if(index >= args.length) {
+			throw new IllegalArgumentException("Missing value after '" + args[index - 1] + "'");
+		}
+		
+		return args[index];
+	}
+}
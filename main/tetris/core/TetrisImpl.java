@@ -1,207 +1,434 @@
-package main.tetris.core;
-
-import java.util.Random;
-
-public interface TetrisImpl {
-	static final Random RANDOM = new Random();
-	static final double UNIT = 1 / 60.0;
-	
-	/**
-	 * This is the wall kick table for the <code>J</code>, <code>L</code>, <code>O</code>, <code>S</code>, <code>T</code> and <code>Z</code> tetromino.<br>
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	static final int[] WallKickData_0 = {
-		0, 0, -1, 0, -1,  1, 0, -2, -1, -2,
-		0, 0,  1, 0,  1, -1, 0,  2,  1,  2,
-		0, 0,  1, 0,  1,  1, 0, -2,  1, -2,
-		0, 0, -1, 0, -1, -1, 0,  2, -1,  2,
-	};
-	
-	/**
-	 * This is the wall kick table for the <code>I</code> tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	static final int[] WallKickData_1 = {
-		0, 0, -2, 0,  1, 0, -2, -1,  1,  2,
-		0, 0, -1, 0,  2, 0, -1,  2,  2, -1,
-		0, 0,  2, 0, -1, 0,  2,  1, -1, -2,
-		0, 0, -1, 0,  2, 0, -1,  2,  2,  1,
-	};
-	
-	/**
-	 * The method for calculating speed uses the following formula.
-	 * 
-	 * <p>
-	 * 
-	 * <code>(0.8 - (Level - 1) * 0.007) ^ (Level - 1)</code>
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
-	 *      <a href="http://tetris.wikia.com/wiki/Tetris_Worlds#Gravity">http://tetris.wikia.com/wiki/Tetris_Worlds</a>
-	 */
-	public double getLevelSpeed();
-	
-	/**
-	 * This method will reset all variables dealing with the {@link Tetris#board playfield}. 
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public void reset();
-	
-	/**
-	 * This method will place the {@link Tetris#current current} tetromino on screen acording to the
-	 * spawning rules.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
-	 *      <a href="http://tetris.wikia.com/wiki/Tetris_Guideline">http://tetris.wikia.com/wiki/Tetris_Guideline<a>
-	 */
-	public void respawn();
-	
-	/**
-	 * This method checks if the {@link Tetris#current current} tetromino can exist
-	 * at the position <code>(nx, ny)</code> and if possible it will set the current
-	 * x and y value to that new position.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	boolean collisionMovement(int nx, int ny);
-	
-	/**
-	 * This method performs the checks called <a href="http://tetris.wikia.com/wiki/SRS#Wall_Kicks">wall kicking</a>,
-	 * this uses a premade table made of different offsets and checks if any one of
-	 * those would allowed, and if so the final rotation and position will be set.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
-	 *      <a href="http://tetris.wikia.com/wiki/SRS#Wall_Kicks">http://tetris.wikia.com/wiki/SRS</a>
-	 */
-	boolean collisionRotation(int nr);
-	
-	/**
-	 * This method checks if the {@link Tetris#current current} tetromino
-	 * can exist at the position <code>(x, y)</code> with a rotation of <code>r</code>
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	boolean isLocationBlocked(int x, int y, int r);
-	
-	/**
-	 * This method will clear all full rows on the {@link Tetris#board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	int clearRows();
-	
-	/**
-	 * This method uses generates a random {@link Tetromino tetromino}.
-	 * 
-	 * <p>
-	 * 
-	 * It uses {@link java.util.Random} to generate a number between 0 and 6 (inclusive).
-	 * After that it checks whether or not that id was the last one, if so it generates a
-	 * new number. This will make the piece distrubution more even at times.
-	 * 
-	 * <p>
-	 * 
-	 * The chance of getting another piece than the {@link Tetris#current current} one is 8/49,
-	 * and the chance of gettnig the same is 1/49. 
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
-	 *      <a href="http://tetris.wikia.com/wiki/Random_Generator">http://tetris.wikia.com/wiki/Random_Generator</a>
-	 */
-	public Tetromino generateRandomTetromino();
-	
-	/**
-	 * This method will return a copy of the current {@link Tetris#board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int[] getPlayfield();
-	
-	/**
-	 * This method will return the {@link Tetris#WIDTH width} of the {@link Tetris#board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getWidth();
-	
-	/**
-	 * This method will return the {@link Tetris#HEIGHT height} of the {@link Tetris#board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getHeight();
-	
-	/**
-	 * This method will return the current {@link Tetris#level level}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getLevel();
-	
-	/**
-	 * This method will return the current amount of {@link Tetris#lines lines} cleared from
-	 * the {@link Tetris#board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getLines();
-	
-	/**
-	 * This method will return the current score of the game.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getScore();
-	
-	/**
-	 * This will return the amount of consecutive {@link Tetris#lines} cleared.
-	 * The {@link Tetris#combo} will reset to zero if no lineclear has been made
-	 * within 1 second .
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getCombo();
-	
-	/**
-	 * This method will return the current {@link Tetris#r rotation} of the current tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getRotation();
-	
-	/**
-	 * This method will return the current {@link Tetris#x x} position of our current tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getX();
-	
-	/**
-	 * This method will return the current {@link Tetris#y y} position of our current tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getY();
-	
-	/**
-	 * This method will return the {@link Tetris#current current} tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public Tetromino getCurrentTetromino();
-	
-	/**
-	 * This method will return the current {@link Tetris#holding held} tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public Tetromino getHoldTetromino();
-	
-	/**
-	 * This method will return the {@link Tetris#next next} tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public Tetromino getNextTetromino();
-}
+package main.tetris.core;
+
+import java.util.Random;
+
+public interface TetrisImpl {
+	static final Random RANDOM = new Random();
+	static final double UNIT = 1 / 60.0;
+	
+	/**
+	 * This is the time between two frames in nanoseconds.
+	 */
+	static final long TICK_NANOS = Math.round(UNIT * 1000000000.0);
+	
+	/**
+	 * A game loop that falls behind more than this amount of frames skips the
+	 * missing frames instead of trying to catch up.
+	 */
+	static final int MAX_CATCHUP = 10;
+	
+	/**
+	 * These are the indexes of the values written by {@link #getFeatures}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	static final int FEATURE_AGGREGATE_HEIGHT = 0;
+	static final int FEATURE_HOLES            = 1;
+	static final int FEATURE_BUMPINESS        = 2;
+	static final int FEATURE_ROW_TRANSITIONS  = 3;
+	static final int FEATURE_MAX_HEIGHT       = 4;
+	static final int FEATURE_WELLS            = 5;
+	static final int FEATURE_COUNT            = 6;
+	
+	/**
+	 * This is the amount of sub cells in one cell when the tetromino falls. A gravity
+	 * of <code>GRAVITY_UNIT</code> per frame is called 1G and moves one row every frame.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Drop">http://tetris.wikia.com/wiki/Drop</a>
+	 */
+	static final int GRAVITY_UNIT = 65536;
+	
+	/**
+	 * This is the highest gravity allowed, called 20G. The tetromino will land on the
+	 * same frame it spawns.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Drop">http://tetris.wikia.com/wiki/Drop</a>
+	 */
+	static final int GRAVITY_20G = 20 * GRAVITY_UNIT;
+	
+	/**
+	 * This is the gravity of every level in {@link #GRAVITY_UNIT} per frame. Levels above
+	 * the end of the table uses the last value, which is {@link #GRAVITY_20G}.
+	 * 
+	 * <p>
+	 * 
+	 * The values are the same as the {@link #getLevelSpeed() level speed} formula rounded
+	 * up so that the tetromino falls on exactly the same frames, but they are written as
+	 * integers so that every game is the same on all computers. From level 14 a row takes
+	 * less than a frame and the tetromino falls several rows every frame, until level 19
+	 * reaches 20G.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Tetris_Worlds#Gravity">http://tetris.wikia.com/wiki/Tetris_Worlds</a>
+	 */
+	static final int[] GRAVITY = {
+		  874,  1075,  1366,  1725,  2260,  2979,  4096,  5462,
+		 7282, 10923, 16384, 21846, 32768, 32768, 95484, 154743,
+		256187, 433425, 749597, GRAVITY_20G,
+	};
+	
+	/**
+	 * This is the wall kick table for the <code>J</code>, <code>L</code>, <code>O</code>, <code>S</code>, <code>T</code> and <code>Z</code> tetromino.<br>
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	static final int[] WallKickData_0 = {
+		0, 0, -1, 0, -1,  1, 0, -2, -1, -2,
+		0, 0,  1, 0,  1, -1, 0,  2,  1,  2,
+		0, 0,  1, 0,  1,  1, 0, -2,  1, -2,
+		0, 0, -1, 0, -1, -1, 0,  2, -1,  2,
+	};
+	
+	/**
+	 * This is the wall kick table for the <code>I</code> tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	static final int[] WallKickData_1 = {
+		0, 0, -2, 0,  1, 0, -2, -1,  1,  2,
+		0, 0, -1, 0,  2, 0, -1,  2,  2, -1,
+		0, 0,  2, 0, -1, 0,  2,  1, -1, -2,
+		0, 0, -1, 0,  2, 0, -1,  2,  2,  1,
+	};
+	
+	/**
+	 * The method for calculating speed uses the following formula.
+	 * 
+	 * <p>
+	 * 
+	 * <code>(0.8 - (Level - 1) * 0.007) ^ (Level - 1)</code>
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Tetris_Worlds#Gravity">http://tetris.wikia.com/wiki/Tetris_Worlds</a>
+	 */
+	public double getLevelSpeed();
+	
+	/**
+	 * This method returns the {@link #GRAVITY gravity} of the current level in
+	 * {@link #GRAVITY_UNIT} per frame.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getGravity();
+	
+	/**
+	 * This method will reset all variables dealing with the {@link Tetris#board playfield}. 
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void reset();
+	
+	/**
+	 * This method will place the {@link Tetris#current current} tetromino on screen acording to the
+	 * spawning rules.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Tetris_Guideline">http://tetris.wikia.com/wiki/Tetris_Guideline<a>
+	 */
+	public void respawn();
+	
+	/**
+	 * This method checks if the {@link Tetris#current current} tetromino can exist
+	 * at the position <code>(nx, ny)</code> and if possible it will set the current
+	 * x and y value to that new position.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	boolean collisionMovement(int nx, int ny);
+	
+	/**
+	 * This method performs the checks called <a href="http://tetris.wikia.com/wiki/SRS#Wall_Kicks">wall kicking</a>,
+	 * this uses a premade table made of different offsets and checks if any one of
+	 * those would allowed, and if so the final rotation and position will be set.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/SRS#Wall_Kicks">http://tetris.wikia.com/wiki/SRS</a>
+	 */
+	boolean collisionRotation(int nr);
+	
+	/**
+	 * This method checks if the {@link Tetris#current current} tetromino
+	 * can exist at the position <code>(x, y)</code> with a rotation of <code>r</code>
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	boolean isLocationBlocked(int x, int y, int r);
+	
+	/**
+	 * This method returns how many rows the {@link Tetris#current current} tetromino can fall
+	 * before it lands. This is used both for hard drops and for drawing the ghost piece.
+	 * 
+	 * <p>
+	 * 
+	 * When the tetromino is above the {@link #getColumnHeight column heights} the landing row is
+	 * computed from the lowest cell of each of its columns, otherwise every row below it is checked.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	int getDropDistance();
+	
+	/**
+	 * This method will clear all full rows on the {@link Tetris#board playfield}
+	 * and return how many rows were removed.
+	 * 
+	 * <p>
+	 * 
+	 * Only the rows that has been filled since the last call are checked, and the rows
+	 * above are moved down in blocks instead of one cell at a time.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	int clearRows();
+	
+	/**
+	 * This method will return a mask of the rows removed by the last call to {@link #clearRows}.
+	 * The bit <code>y</code> is set if the row <code>y</code> was full before it was removed.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	long getClearedRows();
+	
+	/**
+	 * This method uses the {@link Tetris#randomizer randomizer} of the game to
+	 * generate a random {@link Tetromino tetromino}.
+	 * 
+	 * <p>
+	 * 
+	 * The default randomizer is a {@link TetrisRandomizer.Bag 7-bag} seeded from {@link #RANDOM}.
+	 * A {@link TetrisRandomizer.Bag 14-bag} or the {@link TetrisRandomizer.Memoryless memoryless}
+	 * generator can be used by calling {@link Tetris#setRandomizer}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+	 *      <a href="http://tetris.wikia.com/wiki/Random_Generator">http://tetris.wikia.com/wiki/Random_Generator</a>
+	 */
+	public Tetromino generateRandomTetromino();
+	
+	/**
+	 * This method sets the seed of the {@link Tetris#randomizer randomizer}. Calling {@link #reset}
+	 * after this method will start a game that always gets the same pieces.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void setSeed(long seed);
+	
+	/**
+	 * This method returns the {@link Tetris#randomizer randomizer} used to generate new pieces.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public TetrisRandomizer getRandomizer();
+	
+	/**
+	 * This method will return a copy of the current {@link Tetris#board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int[] getPlayfield();
+	
+	/**
+	 * This method will return the value of the cell <code>(x, y)</code> on the {@link Tetris#board playfield}
+	 * without making a copy. Empty cells are <code>0</code> and filled cells are the
+	 * {@link Tetromino#id id} of the tetromino plus one.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getCell(int x, int y);
+	
+	/**
+	 * This method will return the {@link Tetris#rows bitboard} row <code>y</code> of the playfield where
+	 * the bit <code>x</code> is set if the cell <code>(x, y)</code> is filled.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getRowMask(int y);
+	
+	/**
+	 * This method will copy the row <code>y</code> of the {@link Tetris#board playfield}
+	 * into the first {@link Tetris#WIDTH width} elements of <code>dest</code>.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void getRow(int y, int[] dest);
+	
+	/**
+	 * This method will return a number that changes every time the {@link Tetris#board playfield}
+	 * is changed. If the value is the same as last time nothing on the playfield has changed.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public long getVersion();
+	
+	/**
+	 * This method will return the height of the column <code>x</code>, which is the y position
+	 * of the highest filled cell plus one or <code>0</code> if the column is empty.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getColumnHeight(int x);
+	
+	/**
+	 * This method will return the amount of empty cells below the highest filled cell of the column <code>x</code>.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getColumnHoles(int x);
+	
+	/**
+	 * This method will return the amount of holes on the whole {@link Tetris#board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getHoles();
+	
+	/**
+	 * This method will return the sum of the heights of all columns.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getAggregateHeight();
+	
+	/**
+	 * This method will return the amount of times an empty cell is next to a filled cell
+	 * or a wall on all rows that are not empty.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getRowTransitions();
+	
+	/**
+	 * This method will return the sum of the height differences between all neighbouring columns.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getBumpiness();
+	
+	/**
+	 * This method will return how deep the column <code>x</code> is compared to the lowest
+	 * of its neighbouring columns. The walls are as high as the {@link Tetris#board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getWellDepth(int x);
+	
+	/**
+	 * This method will write all board features into <code>dest</code> using the indexes
+	 * {@link #FEATURE_AGGREGATE_HEIGHT}, {@link #FEATURE_HOLES}, {@link #FEATURE_BUMPINESS},
+	 * {@link #FEATURE_ROW_TRANSITIONS}, {@link #FEATURE_MAX_HEIGHT} and {@link #FEATURE_WELLS}.
+	 * 
+	 * <p>
+	 * 
+	 * The features are updated every time the playfield changes so this method
+	 * only looks at the {@link Tetris#WIDTH width} column heights.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void getFeatures(int[] dest);
+	
+	/**
+	 * This method will return the 64-bit <a href="https://en.wikipedia.org/wiki/Zobrist_hashing">Zobrist hash</a>
+	 * of the filled cells on the {@link Tetris#board playfield}. The hash is updated every time
+	 * the playfield changes so this method doesn't read the playfield.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public long getBoardHash();
+	
+	/**
+	 * This method will return the {@link #getBoardHash() board hash} combined with the
+	 * {@link Tetris#current current}, {@link Tetris#holding held} and {@link Tetris#next next}
+	 * tetromino and the pieces left in the bag of the {@link Tetris#randomizer randomizer}.
+	 * The position of the current tetromino is not part of the hash.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public long getStateHash();
+	
+	/**
+	 * This method will return the {@link Tetris#WIDTH width} of the {@link Tetris#board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getWidth();
+	
+	/**
+	 * This method will return the {@link Tetris#HEIGHT height} of the {@link Tetris#board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getHeight();
+	
+	/**
+	 * This method will return the current {@link Tetris#level level}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getLevel();
+	
+	/**
+	 * This method will return the current amount of {@link Tetris#lines lines} cleared from
+	 * the {@link Tetris#board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getLines();
+	
+	/**
+	 * This method will return the current score of the game.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getScore();
+	
+	/**
+	 * This will return the amount of consecutive {@link Tetris#lines} cleared.
+	 * The {@link Tetris#combo} will reset to zero if no lineclear has been made
+	 * within 1 second .
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getCombo();
+	
+	/**
+	 * This method will return the current {@link Tetris#r rotation} of the current tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getRotation();
+	
+	/**
+	 * This method will return the current {@link Tetris#x x} position of our current tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getX();
+	
+	/**
+	 * This method will return the current {@link Tetris#y y} position of our current tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getY();
+	
+	/**
+	 * This method will return the {@link Tetris#current current} tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public Tetromino getCurrentTetromino();
+	
+	/**
+	 * This method will return the current {@link Tetris#holding held} tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public Tetromino getHoldTetromino();
+	
+	/**
+	 * This method will return the {@link Tetris#next next} tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public Tetromino getNextTetromino();
+}
@@ -0,0 +1,276 @@
+package main.tetris.core;
+
+import java.util.Arrays;
+
+/**
+ * This class finds every final placement the {@link Tetris#current current} tetromino
+ * can reach from its current position.
+ * 
+ * <p>
+ * 
+ * The search moves the tetromino with the same {@link Tetris#collisionMovement collisionMovement} and
+ * {@link Tetris#collisionRotation collisionRotation} methods used when playing, so all
+ * <a href="http://tetris.wikia.com/wiki/SRS#Wall_Kicks">wall kicks</a> and T-spin slots are found.
+ * A placement is a position where the tetromino can't fall any further and placements that fill the
+ * same cells are only reported once.
+ * 
+ * <p>
+ * 
+ * All arrays are allocated when the generator is created so a search doesn't allocate any memory.
+ * A generator must not be shared between threads.
+ * 
+ * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+ *      <a href="http://tetris.wikia.com/wiki/SRS">http://tetris.wikia.com/wiki/SRS</a>
+ */
+public class TetrisMoveGenerator {
+	/**
+	 * These are the moves tried from every position. Each move is an input bit
+	 * of {@link TetrisSimulatorImpl#tick(int)}.
+	 */
+	private static final int[] MOVES = {
+		TetrisSimulatorImpl.LEFT,
+		TetrisSimulatorImpl.RIGHT,
+		TetrisSimulatorImpl.SOFTDROP,
+		TetrisSimulatorImpl.ROTATE_LEFT,
+		TetrisSimulatorImpl.ROTATE_RIGHT,
+		TetrisSimulatorImpl.ROTATE_FLIP,
+	};
+	
+	/**
+	 * A tetromino can never be more than three cells outside of the playfield.
+	 */
+	private static final int PAD = 3;
+	
+	/**
+	 * This is the first rotation of every tetromino that has the same shape as the rotation
+	 * <code>r</code>, indexed by <code>id * 4 + r</code>. Two placements fill the same cells
+	 * if they have the same first rotation and their shapes have the same corner.
+	 */
+	private static final int[] FIRST_ROTATION = new int[Tetromino.values().length * 4];
+	
+	static {
+		for(Tetromino t : Tetromino.values()) {
+			for(int r = 0; r < 4; r++) {
+				int first = 0;
+				while(getShape(t, first) != getShape(t, r)) first ++;
+				
+				FIRST_ROTATION[t.id * 4 + r] = first;
+			}
+		}
+	}
+	
+	private final int xs;
+	private final int ys;
+	
+	private final int[] visited;
+	private final int[] parent;
+	private final byte[] move;
+	private final int[] queue;
+	private int stamp;
+	
+	private final int[] placed;
+	private final int[] placements;
+	private int count;
+	
+	/**
+	 * Creates a generator for games with the same playfield size as <code>tetris</code>.
+	 */
+	public TetrisMoveGenerator(TetrisImpl tetris) {
+		xs = tetris.getWidth() + PAD;
+		ys = tetris.getHeight() + PAD;
+		
+		int size = xs * ys * 4;
+		visited = new int[size];
+		parent = new int[size];
+		move = new byte[size];
+		queue = new int[size];
+		placed = new int[size];
+		placements = new int[size];
+	}
+	
+	/**
+	 * Finds all placements of the current tetromino of <code>tetris</code> and returns
+	 * how many were found. The position of the tetromino is not changed.
+	 */
+	public int generate(Tetris tetris) {
+		if(++stamp == 0) {
+			Arrays.fill(visited, 0);
+			Arrays.fill(placed, 0);
+			stamp = 1;
+		}
+		
+		int sx = tetris.x;
+		int sy = tetris.y;
+		int sr = tetris.r;
+		
+		count = 0;
+		int head = 0;
+		int tail = 0;
+		
+		if(!tetris.isLocationBlocked(sx, sy, sr)) {
+			int start = encode(sx, sy, sr);
+			visited[start] = stamp;
+			parent[start] = -1;
+			queue[tail++] = start;
+		}
+		
+		while(head < tail) {
+			int node = queue[head++];
+			int x = getNodeX(node);
+			int y = getNodeY(node);
+			int r = getNodeRotation(node);
+			
+			if(tetris.isLocationBlocked(x, y - 1, r)) {
+				addPlacement(tetris.current, node, x, y, r);
+			}
+			
+			for(int i = 0; i < MOVES.length; i++) {
+				tetris.x = x;
+				tetris.y = y;
+				tetris.r = r;
+				
+				boolean moved;
+				switch(MOVES[i]) {
+					case TetrisSimulatorImpl.LEFT: moved = tetris.collisionMovement(x - 1, y); break;
+					case TetrisSimulatorImpl.RIGHT: moved = tetris.collisionMovement(x + 1, y); break;
+					case TetrisSimulatorImpl.SOFTDROP: moved = tetris.collisionMovement(x, y - 1); break;
+					case TetrisSimulatorImpl.ROTATE_LEFT: moved = tetris.collisionRotation((r + 1) & 3); break;
+					case TetrisSimulatorImpl.ROTATE_RIGHT: moved = tetris.collisionRotation((r - 1) & 3); break;
+					default: moved = tetris.collisionRotation((r + 2) & 3); break;
+				}
+				
+				if(!moved) continue;
+				
+				int next = encode(tetris.x, tetris.y, tetris.r);
+				if(visited[next] == stamp) continue;
+				
+				visited[next] = stamp;
+				parent[next] = node;
+				move[next] = (byte)i;
+				queue[tail++] = next;
+			}
+		}
+		
+		tetris.x = sx;
+		tetris.y = sy;
+		tetris.r = sr;
+		
+		return count;
+	}
+	
+	private void addPlacement(Tetromino t, int node, int x, int y, int r) {
+		// Placements filling the same cells share the corner of the shape and its first rotation
+		int cells = encode(x + t.getMinX(r), y + t.getMinY(r), FIRST_ROTATION[t.id * 4 + r]);
+		if(placed[cells] == stamp) return;
+		
+		placed[cells] = stamp;
+		placements[count++] = node;
+	}
+	
+	/**
+	 * Returns the cells of the rotation <code>r</code> of <code>t</code> moved to the lower left corner.
+	 */
+	private static int getShape(Tetromino t, int r) {
+		return (t.getRotated(r) >>> (t.getMinY(r) << 2)) >>> t.getMinX(r);
+	}
+	
+	private int encode(int x, int y, int r) {
+		return ((r * ys) + y + PAD) * xs + x + PAD;
+	}
+	
+	private int getNodeX(int node) {
+		return (node % xs) - PAD;
+	}
+	
+	private int getNodeY(int node) {
+		return ((node / xs) % ys) - PAD;
+	}
+	
+	private int getNodeRotation(int node) {
+		return node / (xs * ys);
+	}
+	
+	/**
+	 * Returns the amount of placements found by the last call to {@link #generate}.
+	 */
+	public int getCount() {
+		return count;
+	}
+	
+	public int getX(int placement) {
+		return getNodeX(placements[placement]);
+	}
+	
+	public int getY(int placement) {
+		return getNodeY(placements[placement]);
+	}
+	
+	public int getRotation(int placement) {
+		return getNodeRotation(placements[placement]);
+	}
+	
+	/**
+	 * Writes the shortest list of moves that takes the tetromino from its starting position
+	 * to the <code>placement</code> into <code>dest</code> and returns the amount of moves.
+	 * 
+	 * <p>
+	 * 
+	 * Every move is one of the input bits {@link TetrisSimulatorImpl#LEFT LEFT}, {@link TetrisSimulatorImpl#RIGHT RIGHT},
+	 * {@link TetrisSimulatorImpl#SOFTDROP SOFTDROP}, {@link TetrisSimulatorImpl#ROTATE_LEFT ROTATE_LEFT},
+	 * {@link TetrisSimulatorImpl#ROTATE_RIGHT ROTATE_RIGHT} or {@link TetrisSimulatorImpl#ROTATE_FLIP ROTATE_FLIP}
+	 * and means one cell of movement or one rotation, the same as one call to
+	 * {@link Tetris#collisionMovement collisionMovement} or {@link Tetris#collisionRotation collisionRotation}.
+	 * 
+	 * <p>
+	 * 
+	 * The moves are not frame input. Holding a key for several frames repeats it with DAS and ARR
+	 * and a rotation is only done once per press, so a player of the path has to release the keys
+	 * between two moves that share a key, and wait with softdrops until the tetromino has spawned.
+	 * {@link TetrisBot#getInput} plays a path this way.
+	 */
+	public int getPath(int placement, int[] dest) {
+		int length = 0;
+		for(int node = placements[placement]; parent[node] >= 0; node = parent[node]) {
+			length ++;
+		}
+		
+		int i = length;
+		for(int node = placements[placement]; parent[node] >= 0; node = parent[node]) {
+			dest[--i] = MOVES[move[node]];
+		}
+		
+		return length;
+	}
+	
+	/**
+	 * Measures how many placements per second the generator finds on boards
+	 * taken from games played with random input.
+	 */
+	public static void main(String[] args) {
+		int boards = args.length > 0 ? Integer.parseInt(args[0]):200;
+		int repeat = args.length > 1 ? Integer.parseInt(args[1]):500;
+		
+		TetrisSimulator tetris = new TetrisSimulator(0);
+		TetrisPolicy policy = TetrisPolicy.random(0);
+		TetrisMoveGenerator generator = new TetrisMoveGenerator(tetris);
+		
+		long placements = 0;
+		long searches = 0;
+		long time = 0;
+		
+		for(int b = 0; b < boards; b++) {
+			for(int i = 0; i < 40; i++) tetris.tick(policy.getInput(tetris));
+			
+			long start = System.nanoTime();
+			for(int i = 0; i < repeat; i++) {
+				placements += generator.generate(tetris);
+			}
+			time += System.nanoTime() - start;
+			searches += repeat;
+		}
+		
+		System.out.printf("%d searches, %d placements in %.3f s (%.0f searches/s, %.0f placements/s)%n",
+			searches, placements, time / 1e9, searches / (time / 1e9), placements / (time / 1e9)
+		);
+	}
+}
@@ -0,0 +1,35 @@
+package main.tetris.core;
+
+import java.util.SplittableRandom;
+
+/**
+ * A policy decides what keys a player is holding down every frame of a
+ * {@link TetrisSimulator} game. This is used to play games without a window.
+ * 
+ * @see TetrisBatch
+ */
+public interface TetrisPolicy {
+	/**
+	 * This method returns the input of the next frame packed into a single byte.
+	 * 
+	 * @see TetrisSimulatorImpl#tick(int)
+	 */
+	public int getInput(TetrisSimulator tetris);
+	
+	/**
+	 * This method returns a policy that holds down random keys every frame and
+	 * uses harddrop every 16th frame on average.
+	 */
+	public static TetrisPolicy random(long seed) {
+		final SplittableRandom random = new SplittableRandom(seed);
+		
+		return new TetrisPolicy() {
+			public int getInput(TetrisSimulator tetris) {
+				int input = random.nextInt(TetrisSimulatorImpl.HARDDROP);
+				if(random.nextInt(16) == 0) input |= TetrisSimulatorImpl.HARDDROP;
+				
+				return input;
+			}
+		};
+	}
+}
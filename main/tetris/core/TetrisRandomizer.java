@@ -0,0 +1,200 @@
+package main.tetris.core;
+
+/**
+ * This class decides in what order the {@link Tetromino tetrominos} are given to the player.
+ * 
+ * <p>
+ * 
+ * Every randomizer has its own <i>xorshift64*</i> generator so games with the same seed will
+ * always get the same pieces, and no randomizer allocates any objects after it has been created.
+ * 
+ * @see <a href="https://tetris.com/">https://tetris.com/</a><br>
+ *      <a href="http://tetris.wikia.com/wiki/Random_Generator">http://tetris.wikia.com/wiki/Random_Generator</a>
+ */
+public abstract class TetrisRandomizer {
+	/**
+	 * This is the amount of longs needed to {@link #save} the state of any randomizer.
+	 */
+	public static final int STATE_SIZE = 8;
+	
+	/**
+	 * This is the state of the random generator.
+	 */
+	protected long state;
+	
+	/**
+	 * Sets the seed of this randomizer and forgets all previous pieces.
+	 */
+	public void setSeed(long seed) {
+		// Mix the seed so that similar seeds gives different sequences
+		long z = seed + 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		z ^= (z >>> 31);
+		
+		state = z == 0 ? 0x9e3779b97f4a7c15L:z;
+		clear();
+	}
+	
+	/**
+	 * Returns a random number between <code>0</code> (inclusive) and <code>bound</code> (exclusive).
+	 */
+	protected int nextInt(int bound) {
+		long s = state;
+		s ^= s >>> 12;
+		s ^= s <<  25;
+		s ^= s >>> 27;
+		state = s;
+		
+		return (int)(((s * 0x2545f4914f6cdd1dL) >>> 32) * bound >>> 32);
+	}
+	
+	/**
+	 * This method returns the next {@link Tetromino tetromino}.
+	 */
+	public abstract Tetromino next();
+	
+	/**
+	 * This method forgets all the pieces that has been generated without
+	 * changing the state of the random generator.
+	 */
+	public abstract void clear();
+	
+	/**
+	 * Returns a hash of the pieces this randomizer can give next. Two randomizers that
+	 * have the same pieces left in their bag will have the same hash even if the random
+	 * generator is in a different state.
+	 */
+	public long hash() {
+		return 0;
+	}
+	
+	/**
+	 * Writes the complete state of this randomizer into the first {@link #STATE_SIZE} elements of <code>dest</code>.
+	 */
+	public void save(long[] dest) {
+		dest[0] = state;
+	}
+	
+	/**
+	 * Reads a state written by {@link #save}. The state must come from a randomizer of the same type.
+	 */
+	public void load(long[] src) {
+		state = src[0];
+	}
+	
+	/**
+	 * This randomizer puts <code>7 * bags</code> pieces into a bag, shuffles it
+	 * and deals them one by one. The default game uses one bag which makes sure
+	 * that every piece comes once every seven pieces.
+	 * 
+	 * @see <a href="http://tetris.wikia.com/wiki/Random_Generator">http://tetris.wikia.com/wiki/Random_Generator</a>
+	 */
+	public static class Bag extends TetrisRandomizer {
+		protected final int[] bag;
+		protected int index;
+		
+		/**
+		 * Creates a randomizer with <code>bags</code> copies of every piece in
+		 * the bag. At most 18 bags are allowed so the bag fits in a {@link TetrisState}.
+		 */
+		public Bag(int bags) {
+			if(bags < 1 || bags > 18) throw new IllegalArgumentException("The amount of bags must be between 1 and 18");
+			bag = new int[7 * bags];
+			index = bag.length;
+		}
+		
+		public Tetromino next() {
+			if(index >= bag.length) {
+				for(int i = 0; i < bag.length; i++)
+					bag[i] = i % 7;
+				
+				for(int i = bag.length - 1; i > 0; i--) {
+					int j = nextInt(i + 1);
+					int tmp = bag[i];
+					bag[i] = bag[j];
+					bag[j] = tmp;
+				}
+				
+				index = 0;
+			}
+			
+			return Tetromino.get(bag[index++]);
+		}
+		
+		public void clear() {
+			index = bag.length;
+		}
+		
+		public long hash() {
+			// The order of the remaining pieces is unknown so only count them
+			long counts = 0;
+			for(int i = index; i < bag.length; i++) {
+				counts += 1L << (bag[i] * 5);
+			}
+			
+			long z = counts * 0x9e3779b97f4a7c15L;
+			return z ^ (z >>> 29);
+		}
+		
+		public void save(long[] dest) {
+			super.save(dest);
+			dest[1] = index;
+			
+			// Every piece id fits in three bits so 21 pieces are packed into each long
+			for(int i = 2; i < STATE_SIZE; i++) dest[i] = 0;
+			for(int i = 0; i < bag.length; i++) {
+				dest[2 + i / 21] |= (long)bag[i] << ((i % 21) * 3);
+			}
+		}
+		
+		public void load(long[] src) {
+			super.load(src);
+			index = (int)src[1];
+			
+			for(int i = 0; i < bag.length; i++) {
+				bag[i] = (int)(src[2 + i / 21] >>> ((i % 21) * 3)) & 7;
+			}
+		}
+	}
+	
+	/**
+	 * This randomizer generates a number between 0 and 6 (inclusive) and if
+	 * that was the same as the last piece it will generate a new number once.
+	 * 
+	 * <p>
+	 * 
+	 * The only thing remembered is the last piece, which makes the chance of
+	 * getting the same piece twice in a row 1/49.
+	 */
+	public static class Memoryless extends TetrisRandomizer {
+		protected int last = -1;
+		
+		public Tetromino next() {
+			int id = nextInt(7);
+			if(id == last) id = nextInt(7);
+			
+			last = id;
+			return Tetromino.get(id);
+		}
+		
+		public void clear() {
+			last = -1;
+		}
+		
+		public long hash() {
+			long z = (last + 2) * 0x9e3779b97f4a7c15L;
+			return z ^ (z >>> 29);
+		}
+		
+		public void save(long[] dest) {
+			super.save(dest);
+			dest[1] = last;
+		}
+		
+		public void load(long[] src) {
+			super.load(src);
+			last = (int)src[1];
+		}
+	}
+}
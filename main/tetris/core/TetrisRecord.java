@@ -0,0 +1,745 @@
+package main.tetris.core;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * This class is a flyweight {@link TetrisImpl} that reads and changes a game stored in a
+ * {@link TetrisStore} directly. One record can be used for every game in a store by moving
+ * it with {@link #at}, so playing millions of games doesn't create any objects.
+ *
+ * <p>
+ *
+ * Games are played one placement at a time with {@link #place(int, int, int, boolean) place}
+ * which follows the same rules as {@link TetrisSimulator#place(int, int, int, boolean)}.
+ * The colors of the cells are not stored so every filled cell has the color <code>1</code>, and
+ * only the {@link TetrisRandomizer.Bag 7-bag} fits in a record so the randomizer can't be changed.
+ *
+ * <p>
+ *
+ * A record must not be shared between threads, but two records can use the same
+ * store as long as they never point to the same game.
+ *
+ * @see <a href="https://tetris.com/">https://tetris.com/</a>
+ */
+public class TetrisRecord implements TetrisImpl {
+	public static final int WIDTH = 10;
+	public static final int HEIGHT = 40;
+	
+	private static final int FULL_ROW = (1 << WIDTH) - 1;
+	private static final int ROW_BITS = 10;
+	
+	private static final Tetromino[] PIECES = Tetromino.values();
+	
+	private static final int SWITCHED  = 1;
+	private static final int GAME_OVER = 2;
+	
+	/**
+	 * @see TetrisSimulator#autoReset
+	 */
+	public boolean autoReset = true;
+	
+	private final TetrisStore store;
+	private final TetrisRandomizer.Bag bag;
+	private final long[] random;
+	
+	private ByteBuffer buffer;
+	private int base;
+	private long game = -1;
+	
+	private long clearedRows;
+	
+	public TetrisRecord(TetrisStore store) {
+		this.store = store;
+		
+		bag = new TetrisRandomizer.Bag(1);
+		random = new long[TetrisRandomizer.STATE_SIZE];
+	}
+	
+	/**
+	 * Moves this record to the game <code>game</code> of the store and returns itself.
+	 */
+	public TetrisRecord at(long game) {
+		buffer = store.getChunk(game);
+		base = TetrisStore.getOffset(game);
+		
+		this.game = game;
+		
+		return this;
+	}
+	
+	public long getGame() {
+		return game;
+	}
+	
+	/**
+	 * Locks the current tetromino at the specified position and returns the amount of cleared
+	 * rows, or <code>-1</code> if the tetromino can't rest there. If <code>hold</code> is set
+	 * the held tetromino is placed instead. If the game topped out and was reset
+	 * {@link TetrisSimulatorImpl#RESET RESET} is returned.
+	 *
+	 * @see TetrisSimulator#place(int, int, int, boolean)
+	 */
+	public int place(int x, int y, int r, boolean hold) {
+		int flags = getByte(TetrisStore.FLAGS);
+		if((flags & GAME_OVER) != 0 || (hold && (flags & SWITCHED) != 0)) return -1;
+		
+		int current = getByte(TetrisStore.CURRENT);
+		if(hold) current = getByte(TetrisStore.HOLDING) < 0 ? getByte(TetrisStore.NEXT):getByte(TetrisStore.HOLDING);
+		
+		if(isLocationBlocked(current, x, y, r) || !isLocationBlocked(current, x, y - 1, r)) return -1;
+		
+		if(hold) hold();
+		
+		setByte(TetrisStore.X, x);
+		setByte(TetrisStore.Y, y);
+		setByte(TetrisStore.R, r);
+		
+		if(lock(18 - y)) return TetrisSimulatorImpl.RESET;
+		
+		return Long.bitCount(clearedRows);
+	}
+	
+	/**
+	 * Swaps the current tetromino with the held one, or with the next one if nothing is held.
+	 * Returns <code>false</code> if the tetromino has already been swapped.
+	 *
+	 * @see TetrisSimulator#hold()
+	 */
+	public boolean hold() {
+		int flags = getByte(TetrisStore.FLAGS);
+		if((flags & SWITCHED) != 0) return false;
+		
+		int current = getByte(TetrisStore.CURRENT);
+		int holding = getByte(TetrisStore.HOLDING);
+		
+		if(holding < 0) {
+			setByte(TetrisStore.CURRENT, getByte(TetrisStore.NEXT));
+			setByte(TetrisStore.NEXT, generateRandomTetromino().id);
+		} else {
+			setByte(TetrisStore.CURRENT, holding);
+		}
+		
+		setByte(TetrisStore.HOLDING, current);
+		
+		respawn();
+		
+		setByte(TetrisStore.FLAGS, flags | SWITCHED);
+		
+		return true;
+	}
+	
+	/**
+	 * Writes the current tetromino to the playfield, scores it and spawns the next one.
+	 * Returns <code>true</code> if the next one couldn't spawn and the game was reset.
+	 *
+	 * @see TetrisSimulator#writeToArray()
+	 */
+	private boolean lock(int harddropScore) {
+		Tetromino t = getCurrentTetromino();
+		int x = getX();
+		int y = getY();
+		int r = getRotation();
+		
+		for(int i = t.getMinY(r); i <= t.getMaxY(r); i++) {
+			int yp = y + i;
+			if(yp < 0 || yp >= HEIGHT) continue;
+			
+			int mask = t.getRowMask(r, i);
+			setRowMask(yp, getRowMask(yp) | ((x < 0 ? (mask >> -x):(mask << x)) & FULL_ROW));
+		}
+		
+		changed();
+		setInt(TetrisStore.PIECES, getInt(TetrisStore.PIECES) + 1);
+		
+		calculateScore(harddropScore);
+		
+		setByte(TetrisStore.CURRENT, getByte(TetrisStore.NEXT));
+		setByte(TetrisStore.NEXT, generateRandomTetromino().id);
+		
+		respawn();
+		
+		setByte(TetrisStore.FLAGS, getByte(TetrisStore.FLAGS) & ~SWITCHED);
+		
+		if(isLocationBlocked(getX(), getY() - 1, getRotation())) {
+			if(autoReset) {
+				reset();
+				return true;
+			}
+			
+			setByte(TetrisStore.FLAGS, getByte(TetrisStore.FLAGS) | GAME_OVER);
+		} else setByte(TetrisStore.Y, getY() - 1);
+		
+		return false;
+	}
+	
+	/**
+	 * @see TetrisSimulator#calculateScore()
+	 */
+	private void calculateScore(int harddropScore) {
+		int x = getX();
+		int y = getY();
+		int r = getRotation();
+		
+		boolean tspin = false;
+		if(getCurrentTetromino() == Tetromino.T) {
+			if(isLocationBlocked(x - 1, y, r)
+			&& isLocationBlocked(x + 1, y, r)
+			&& isLocationBlocked(x, y + 1, r)) tspin = true;
+		}
+		
+		int cleared = clearRows();
+		int lines = getInt(TetrisStore.LINES) + cleared;
+		int level = getInt(TetrisStore.LEVEL);
+		int levelProgress = getInt(TetrisStore.LEVEL_PROGRESS);
+		int score = getInt(TetrisStore.SCORE);
+		
+		if(cleared == 1) levelProgress += 1;
+		else if(cleared == 2) levelProgress += 3;
+		else if(cleared == 3) levelProgress += 5;
+		else if(cleared == 4) levelProgress += 8;
+		
+		if(levelProgress > (5 * (level + 1))) {
+			levelProgress -= 5 * (level);
+			
+			level ++;
+		}
+		
+		if(harddropScore > 20) harddropScore = 20;
+		if(harddropScore < 0) harddropScore = 0;
+		
+		score += harddropScore * 2;
+		
+		if(tspin) {
+			if(cleared == 0) score += 100 * (level + 1);
+			if(cleared == 1) score += 400 * (level + 1);
+			if(cleared == 2) score += 1200 * (level + 1);
+			if(cleared == 3) score += 1600 * (level + 1);
+		} else {
+			if(cleared == 2) score += 300 * (level + 1);
+			if(cleared == 3) score += 500 * (level + 1);
+			if(cleared == 4) score += 800 * (level + 1);
+		}
+		
+		setInt(TetrisStore.LINES, lines);
+		setInt(TetrisStore.LEVEL, level);
+		setInt(TetrisStore.LEVEL_PROGRESS, levelProgress);
+		setInt(TetrisStore.SCORE, score);
+	}
+	
+	public double getLevelSpeed() {
+		int level = getLevel();
+		return Math.pow(0.8 - (level - 1) * 0.007, level - 1);
+	}
+	
+	public int getGravity() {
+		return GRAVITY[Math.min(Math.max(getLevel(), 0), GRAVITY.length - 1)];
+	}
+	
+	/**
+	 * Starts the game over with an empty playfield. The amount of placed pieces is kept.
+	 *
+	 * @see TetrisSimulator#reset()
+	 */
+	public void reset() {
+		for(int i = 0; i < HEIGHT; i += TetrisStore.ROWS_PER_LONG) {
+			buffer.putLong(base + TetrisStore.ROWS + (i / TetrisStore.ROWS_PER_LONG) * 8, 0);
+		}
+		
+		changed();
+		clearedRows = 0;
+		
+		setInt(TetrisStore.SCORE, 0);
+		setInt(TetrisStore.LINES, 0);
+		setInt(TetrisStore.LEVEL, 0);
+		setInt(TetrisStore.LEVEL_PROGRESS, 0);
+		setInt(TetrisStore.COMBO, 0);
+		setByte(TetrisStore.FLAGS, 0);
+		
+		loadRandomizer();
+		bag.clear();
+		saveRandomizer();
+		
+		setByte(TetrisStore.CURRENT, generateRandomTetromino().id);
+		setByte(TetrisStore.NEXT, generateRandomTetromino().id);
+		setByte(TetrisStore.HOLDING, -1);
+		
+		respawn();
+	}
+	
+	public void respawn() {
+		setByte(TetrisStore.Y, 18);
+		
+		Tetromino current = getCurrentTetromino();
+		if(current == Tetromino.O || current == Tetromino.I) setByte(TetrisStore.X, 3);
+		else setByte(TetrisStore.X, 2);
+		
+		setByte(TetrisStore.R, 0);
+	}
+	
+	public boolean collisionMovement(int nx, int ny) {
+		if(isLocationBlocked(nx, ny, getRotation())) return false;
+		setByte(TetrisStore.X, nx);
+		setByte(TetrisStore.Y, ny);
+		
+		return true;
+	}
+	
+	public boolean collisionRotation(int nr) {
+		Tetromino current = getCurrentTetromino();
+		if(current == Tetromino.O) return false;
+		
+		int r = getRotation();
+		boolean flip = ((r + 1) & 3) != nr;
+		
+		int offset = nr * 10;
+		
+		if(!flip)
+			offset = r * 10;
+		
+		int[] kicks = current == Tetromino.I ? WallKickData_1:WallKickData_0;
+		for(int i = 0; i < 5; i++) {
+			int xn = kicks[offset + i * 2    ];
+			int yn = kicks[offset + i * 2 + 1];
+			
+			if(!flip) {
+				xn *= -1;
+				yn *= -1;
+			}
+			
+			if(!isLocationBlocked(getX() + xn, getY() + yn, nr)) {
+				setByte(TetrisStore.X, getX() + xn);
+				setByte(TetrisStore.Y, getY() + yn);
+				setByte(TetrisStore.R, nr);
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	public boolean isLocationBlocked(int x, int y, int r) {
+		return isLocationBlocked(getByte(TetrisStore.CURRENT), x, y, r);
+	}
+	
+	private boolean isLocationBlocked(int id, int x, int y, int r) {
+		Tetromino t = PIECES[id];
+		int minX = x + t.getMinX(r);
+		int maxX = x + t.getMaxX(r);
+		int minY = t.getMinY(r);
+		int maxY = t.getMaxY(r);
+		
+		if(minX < 0 || maxX >= WIDTH || y + minY < 0 || y + maxY >= HEIGHT)
+			return true;
+		
+		int shift = x + 3;
+		for(int i = minY; i <= maxY; i++) {
+			if(((t.getRowMask(r, i) << shift) & (getRowMask(y + i) << 3)) != 0)
+				return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the drop distance by checking every row below the current tetromino, the
+	 * record has no column heights to skip the empty rows with.
+	 *
+	 * @see Tetris#getDropDistance()
+	 */
+	public int getDropDistance() {
+		int x = getX();
+		int y = getY();
+		int r = getRotation();
+		
+		int a = y;
+		for(; a > -4; a--) {
+			if(isLocationBlocked(x, a - 1, r)) break;
+		}
+		
+		return y - a;
+	}
+	
+	/**
+	 * Removes all full rows. Every row is checked since the record doesn't remember which
+	 * rows were filled, but only the rows up to the highest filled row are moved.
+	 *
+	 * @see Tetris#clearRows()
+	 */
+	public int clearRows() {
+		long cleared = 0;
+		int top = 0;
+		for(int i = 0; i < HEIGHT; i++) {
+			int row = getRowMask(i);
+			if(row == FULL_ROW) cleared |= 1L << i;
+			if(row != 0) top = i + 1;
+		}
+		
+		clearedRows = cleared;
+		if(cleared == 0) return 0;
+		
+		int write = Long.numberOfTrailingZeros(cleared);
+		for(int read = write; read < top; read++) {
+			if(((cleared >>> read) & 1) != 0) continue;
+			
+			setRowMask(write++, getRowMask(read));
+		}
+		
+		int offset = top - write;
+		for(; write < top; write++) {
+			setRowMask(write, 0);
+		}
+		
+		changed();
+		setInt(TetrisStore.LINES, getInt(TetrisStore.LINES) + offset);
+		
+		return offset;
+	}
+	
+	public long getClearedRows() {
+		return clearedRows;
+	}
+	
+	public Tetromino generateRandomTetromino() {
+		loadRandomizer();
+		Tetromino t = bag.next();
+		saveRandomizer();
+		
+		return t;
+	}
+	
+	public void setSeed(long seed) {
+		bag.setSeed(seed);
+		saveRandomizer();
+	}
+	
+	/**
+	 * Returns a copy of the randomizer of this game. Changing the copy doesn't change the game.
+	 */
+	public TetrisRandomizer getRandomizer() {
+		TetrisRandomizer.Bag copy = new TetrisRandomizer.Bag(1);
+		
+		loadRandomizer();
+		copy.load(random);
+		
+		return copy;
+	}
+	
+	/**
+	 * Reads the state of the 7-bag of this game into {@link #bag}.
+	 */
+	private void loadRandomizer() {
+		int packed = getInt(TetrisStore.BAG);
+		
+		random[0] = buffer.getLong(base + TetrisStore.RANDOM);
+		random[1] = packed >>> 24;
+		random[2] = packed & 0x1fffff;
+		bag.load(random);
+	}
+	
+	/**
+	 * Writes the state of {@link #bag} into the record, the seven pieces of the bag take 21 bits.
+	 */
+	private void saveRandomizer() {
+		bag.save(random);
+		
+		buffer.putLong(base + TetrisStore.RANDOM, random[0]);
+		setInt(TetrisStore.BAG, (int)random[2] | ((int)random[1] << 24));
+	}
+	
+	public int[] getPlayfield() {
+		int[] board = new int[WIDTH * HEIGHT];
+		for(int y = 0; y < HEIGHT; y++) {
+			getRow(y, board, y * WIDTH);
+		}
+		
+		return board;
+	}
+	
+	public int getCell(int x, int y) {
+		return (getRowMask(y) >> x) & 1;
+	}
+	
+	public int getRowMask(int y) {
+		long packed = buffer.getLong(base + TetrisStore.ROWS + (y / TetrisStore.ROWS_PER_LONG) * 8);
+		return (int)(packed >>> ((y % TetrisStore.ROWS_PER_LONG) * ROW_BITS)) & FULL_ROW;
+	}
+	
+	private void setRowMask(int y, int mask) {
+		int index = base + TetrisStore.ROWS + (y / TetrisStore.ROWS_PER_LONG) * 8;
+		int shift = (y % TetrisStore.ROWS_PER_LONG) * ROW_BITS;
+		
+		long packed = buffer.getLong(index);
+		buffer.putLong(index, (packed & ~((long)FULL_ROW << shift)) | ((long)mask << shift));
+	}
+	
+	public void getRow(int y, int[] dest) {
+		getRow(y, dest, 0);
+	}
+	
+	private void getRow(int y, int[] dest, int offset) {
+		int mask = getRowMask(y);
+		for(int x = 0; x < WIDTH; x++) {
+			dest[offset + x] = (mask >> x) & 1;
+		}
+	}
+	
+	/**
+	 * Returns the version stored with the game, so it also changes when another record or
+	 * {@link TetrisStore#copy} changes the playfield. Two games can have the same version, so
+	 * a cache that follows this record to other games also has to check {@link #getGame()}.
+	 */
+	public long getVersion() {
+		return buffer.getLong(base + TetrisStore.VERSION);
+	}
+	
+	private void changed() {
+		buffer.putLong(base + TetrisStore.VERSION, getVersion() + 1);
+	}
+	
+	public int getColumnHeight(int x) {
+		for(int y = HEIGHT - 1; y >= 0; y--) {
+			if(((getRowMask(y) >> x) & 1) != 0) return y + 1;
+		}
+		
+		return 0;
+	}
+	
+	public int getColumnHoles(int x) {
+		int holes = 0;
+		for(int y = getColumnHeight(x) - 1; y >= 0; y--) {
+			if(((getRowMask(y) >> x) & 1) == 0) holes ++;
+		}
+		
+		return holes;
+	}
+	
+	public int getHoles() {
+		int holes = 0;
+		int covered = 0;
+		for(int y = HEIGHT - 1; y >= 0; y--) {
+			int row = getRowMask(y);
+			
+			holes += Integer.bitCount(covered & ~row);
+			covered |= row;
+		}
+		
+		return holes;
+	}
+	
+	public int getAggregateHeight() {
+		int height = 0;
+		for(int x = 0; x < WIDTH; x++) {
+			height += getColumnHeight(x);
+		}
+		
+		return height;
+	}
+	
+	public int getRowTransitions() {
+		int transitions = 0;
+		for(int y = 0; y < HEIGHT; y++) {
+			int mask = getRowMask(y);
+			if(mask == 0) continue;
+			
+			int row = (mask << 1) | 1 | (1 << (WIDTH + 1));
+			transitions += Integer.bitCount((row ^ (row >>> 1)) & ((1 << (WIDTH + 1)) - 1));
+		}
+		
+		return transitions;
+	}
+	
+	public int getBumpiness() {
+		int bumpiness = 0;
+		for(int i = 1; i < WIDTH; i++) {
+			bumpiness += Math.abs(getColumnHeight(i) - getColumnHeight(i - 1));
+		}
+		
+		return bumpiness;
+	}
+	
+	public int getWellDepth(int x) {
+		int left  = x > 0         ? getColumnHeight(x - 1):HEIGHT;
+		int right = x < WIDTH - 1 ? getColumnHeight(x + 1):HEIGHT;
+		int depth = Math.min(left, right) - getColumnHeight(x);
+		
+		return depth > 0 ? depth:0;
+	}
+	
+	public void getFeatures(int[] dest) {
+		int max = 0;
+		int wells = 0;
+		for(int i = 0; i < WIDTH; i++) {
+			max = Math.max(max, getColumnHeight(i));
+			wells += getWellDepth(i);
+		}
+		
+		dest[FEATURE_AGGREGATE_HEIGHT] = getAggregateHeight();
+		dest[FEATURE_HOLES] = getHoles();
+		dest[FEATURE_BUMPINESS] = getBumpiness();
+		dest[FEATURE_ROW_TRANSITIONS] = getRowTransitions();
+		dest[FEATURE_MAX_HEIGHT] = max;
+		dest[FEATURE_WELLS] = wells;
+	}
+	
+	/**
+	 * Returns the same Zobrist hash as {@link Tetris#getBoardHash()}, computed from the rows.
+	 */
+	public long getBoardHash() {
+		long hash = 0;
+		for(int y = 0; y < HEIGHT; y++) {
+			for(int mask = getRowMask(y); mask != 0; mask &= mask - 1) {
+				hash ^= Tetris.ZOBRIST_CELL[Integer.numberOfTrailingZeros(mask) + y * WIDTH];
+			}
+		}
+		
+		return hash;
+	}
+	
+	public long getStateHash() {
+		Tetromino holding = getHoldTetromino();
+		
+		long hash = getBoardHash();
+		hash ^= Tetris.ZOBRIST_PIECE[     getCurrentTetromino().id];
+		hash ^= Tetris.ZOBRIST_PIECE[ 8 + (holding == null ? 7:holding.id)];
+		hash ^= Tetris.ZOBRIST_PIECE[16 + getNextTetromino().id];
+		
+		loadRandomizer();
+		hash ^= bag.hash();
+		
+		return hash;
+	}
+	
+	public int getWidth() {
+		return WIDTH;
+	}
+	
+	public int getHeight() {
+		return HEIGHT;
+	}
+	
+	public int getLevel() {
+		return getInt(TetrisStore.LEVEL);
+	}
+	
+	public int getLines() {
+		return getInt(TetrisStore.LINES);
+	}
+	
+	public int getScore() {
+		return getInt(TetrisStore.SCORE);
+	}
+	
+	public int getLevelProgress() {
+		return getInt(TetrisStore.LEVEL_PROGRESS);
+	}
+	
+	public int getCombo() {
+		return getInt(TetrisStore.COMBO);
+	}
+	
+	public int getRotation() {
+		return getByte(TetrisStore.R);
+	}
+	
+	public int getX() {
+		return getByte(TetrisStore.X);
+	}
+	
+	public int getY() {
+		return getByte(TetrisStore.Y);
+	}
+	
+	public Tetromino getCurrentTetromino() {
+		return PIECES[getByte(TetrisStore.CURRENT)];
+	}
+	
+	public Tetromino getHoldTetromino() {
+		int holding = getByte(TetrisStore.HOLDING);
+		return holding < 0 ? null:PIECES[holding];
+	}
+	
+	public Tetromino getNextTetromino() {
+		return PIECES[getByte(TetrisStore.NEXT)];
+	}
+	
+	public long getPieces() {
+		return getInt(TetrisStore.PIECES) & 0xffffffffL;
+	}
+	
+	public boolean isGameOver() {
+		return (getByte(TetrisStore.FLAGS) & GAME_OVER) != 0;
+	}
+	
+	private int getByte(int offset) {
+		return buffer.get(base + offset);
+	}
+	
+	private void setByte(int offset, int value) {
+		buffer.put(base + offset, (byte)value);
+	}
+	
+	private int getInt(int offset) {
+		return buffer.getInt(base + offset);
+	}
+	
+	private void setInt(int offset, int value) {
+		buffer.putInt(base + offset, value);
+	}
+	
+	/**
+	 * Plays a large store to show that the heap doesn't grow with the amount of games. The
+	 * records are checked against {@link TetrisSimulator} by <code>TetrisRecordTest</code>.
+	 */
+	public static void main(String[] args) {
+		long games = args.length > 0 ? Long.parseLong(args[0]):1000000;
+		int pieces = args.length > 1 ? Integer.parseInt(args[1]):20;
+		
+		TetrisStore store = new TetrisStore(games);
+		TetrisRecord record = new TetrisRecord(store);
+		
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long heap = runtime.totalMemory() - runtime.freeMemory();
+		
+		long start = System.nanoTime();
+		long placed = 0;
+		SplittableRandom random = new SplittableRandom(0);
+		for(long g = 0; g < games; g++) {
+			record.at(g).setSeed(g);
+			record.reset();
+			
+			// Every piece is dropped in a random column with a random rotation
+			for(int i = 0; i < pieces; i++) {
+				int r = random.nextInt(4);
+				int x = random.nextInt(WIDTH) - 1;
+				if(record.isLocationBlocked(x, record.getY(), r)) continue;
+				
+				int y = record.getY() - dropDistance(record, x, r);
+				if(record.place(x, y, r, false) >= 0) placed ++;
+			}
+		}
+		
+		double seconds = (System.nanoTime() - start) / 1e9;
+		
+		System.gc();
+		System.out.printf("%d games in %d MB off heap, %d pieces in %.3f s (%.0f pieces/s)%n",
+			games, store.getBytes() >> 20, placed, seconds, placed / seconds
+		);
+		System.out.printf("heap used before %d KB, after %d KB%n", heap >> 10, (runtime.totalMemory() - runtime.freeMemory()) >> 10);
+	}
+	
+	/**
+	 * Returns how many rows the current tetromino of <code>record</code> falls at the
+	 * column <code>x</code> with the rotation <code>r</code>.
+	 */
+	static int dropDistance(TetrisRecord record, int x, int r) {
+		int y = record.getY();
+		int a = y;
+		for(; a > -4; a--) {
+			if(record.isLocationBlocked(x, a - 1, r)) break;
+		}
+		
+		return y - a;
+	}
+}
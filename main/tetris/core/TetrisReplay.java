@@ -0,0 +1,335 @@
+package main.tetris.core;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class records every input of a {@link TetrisSimulator} game so that
+ * it can be played again without a window at full speed.
+ * 
+ * <p>
+ * 
+ * Because the simulator is deterministic a game is stored as the seed, the
+ * settings and one byte of {@link TetrisSimulatorImpl#tick(int) input} per frame.
+ * The inputs are run length encoded since the same keys are usually held down for
+ * many frames. When playing a replay the final score, lines and playfield are
+ * compared with the recorded ones.
+ * 
+ * <p>
+ * 
+ * Replays are played with the default {@link TetrisRandomizer.Bag 7-bag} randomizer
+ * so games using another randomizer can not be recorded.
+ * 
+ * <p>
+ * 
+ * A replay is recorded like this:
+ * <pre>
+ * TetrisSimulator tetris = new TetrisSimulator(seed);
+ * TetrisReplay replay = new TetrisReplay(seed, tetris);
+ * 
+ * while(...) {
+ *     replay.record(input);
+ *     tetris.tick(input);
+ * }
+ * 
+ * replay.finish(tetris);
+ * </pre>
+ */
+public class TetrisReplay {
+	private static final int MAGIC = 0x54525031; // "TRP1"
+	private static final int HEADER = 4 + 8 + 4 * 3 + 1 + 8 + 8 + 4 + 4 + 8 + 4;
+	
+	private final long seed;
+	private final int DAS;
+	private final int ARR;
+	private final int ARE;
+	private final boolean autoReset;
+	
+	private byte[] data = new byte[256];
+	private int length;
+	
+	private int lastInput = -1;
+	private long run;
+	
+	private long frames;
+	private long frame;
+	private int score;
+	private int lines;
+	private long checksum;
+	
+	/**
+	 * Creates an empty replay for a game started with the specified <code>seed</code> and
+	 * the same settings as <code>tetris</code>.
+	 */
+	public TetrisReplay(long seed, TetrisSimulator tetris) {
+		this(seed, tetris.DAS, tetris.ARR, tetris.ARE, tetris.autoReset);
+	}
+	
+	private TetrisReplay(long seed, int DAS, int ARR, int ARE, boolean autoReset) {
+		this.seed = seed;
+		this.DAS = DAS;
+		this.ARR = ARR;
+		this.ARE = ARE;
+		this.autoReset = autoReset;
+	}
+	
+	/**
+	 * Adds the input of the next frame to this replay.
+	 */
+	public void record(int input) {
+		input &= 0xff;
+		frames ++;
+		
+		if(input == lastInput) {
+			run ++;
+			return;
+		}
+		
+		flush();
+		lastInput = input;
+		run = 1;
+	}
+	
+	/**
+	 * Stops the recording and stores the final state of <code>tetris</code>
+	 * that is checked when the replay is {@link #verify() verified}.
+	 */
+	public void finish(TetrisSimulator tetris) {
+		flush();
+		lastInput = -1;
+		run = 0;
+		
+		frame = tetris.getFrame();
+		score = tetris.getScore();
+		lines = tetris.getLines();
+		checksum = checksum(tetris);
+	}
+	
+	private void flush() {
+		if(run == 0) return;
+		
+		ensureCapacity(length + 11);
+		data[length++] = (byte)lastInput;
+		
+		// The length of the run is written seven bits at a time
+		long value = run - 1;
+		while((value & ~0x7fL) != 0) {
+			data[length++] = (byte)((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		data[length++] = (byte)value;
+	}
+	
+	private void ensureCapacity(int size) {
+		if(size > data.length) {
+			data = Arrays.copyOf(data, Math.max(size, data.length * 2));
+		}
+	}
+	
+	/**
+	 * Creates a new game and plays every recorded frame on it. Every run of the same input is
+	 * played with {@link TetrisSimulator#advance advance} so the frames where nothing happens are skipped.
+	 */
+	public TetrisSimulator play() {
+		TetrisSimulator tetris = new TetrisSimulator(seed);
+		tetris.DAS = DAS;
+		tetris.ARR = ARR;
+		tetris.ARE = ARE;
+		tetris.autoReset = autoReset;
+		
+		int index = 0;
+		while(index < length) {
+			int input = data[index++] & 0xff;
+			
+			long count = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = data[index++];
+				count |= (long)(b & 0x7f) << shift;
+				shift += 7;
+			} while((b & 0x80) != 0);
+			
+			tetris.advance(input, count + 1);
+		}
+		
+		return tetris;
+	}
+	
+	/**
+	 * Plays this replay and returns <code>true</code> if the game ended with
+	 * the same frame, score, lines and playfield as when it was recorded.
+	 */
+	public boolean verify() {
+		return verify(play());
+	}
+	
+	/**
+	 * Returns <code>true</code> if <code>tetris</code> has the same frame, score, lines and
+	 * playfield as the game had when this replay was recorded.
+	 */
+	public boolean verify(TetrisSimulator tetris) {
+		return tetris.getFrame() == frame
+			&& tetris.getScore() == score
+			&& tetris.getLines() == lines
+			&& checksum(tetris) == checksum;
+	}
+	
+	/**
+	 * Returns a hash of the playfield and the current tetromino of <code>tetris</code>.
+	 */
+	public static long checksum(TetrisSimulator tetris) {
+		long hash = 0xcbf29ce484222325L;
+		for(int i = 0; i < tetris.board.length; i++) {
+			hash = (hash ^ tetris.board[i]) * 0x100000001b3L;
+		}
+		
+		hash = (hash ^ tetris.getCurrentTetromino().id) * 0x100000001b3L;
+		hash = (hash ^ tetris.getX()) * 0x100000001b3L;
+		hash = (hash ^ tetris.getY()) * 0x100000001b3L;
+		hash = (hash ^ tetris.getRotation()) * 0x100000001b3L;
+		return hash;
+	}
+	
+	/**
+	 * Writes this replay to the file at <code>path</code>.
+	 */
+	public void write(Path path) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		header.putInt(MAGIC);
+		header.putLong(seed);
+		header.putInt(DAS);
+		header.putInt(ARR);
+		header.putInt(ARE);
+		header.put((byte)(autoReset ? 1:0));
+		header.putLong(frames);
+		header.putLong(frame);
+		header.putInt(score);
+		header.putInt(lines);
+		header.putLong(checksum);
+		header.putInt(length);
+		header.flip();
+		
+		FileChannel channel = FileChannel.open(path,
+			StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE,
+			StandardOpenOption.TRUNCATE_EXISTING
+		);
+		
+		try {
+			ByteBuffer[] buffers = { header, ByteBuffer.wrap(data, 0, length) };
+			while(header.hasRemaining() || buffers[1].hasRemaining()) {
+				channel.write(buffers);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+	
+	/**
+	 * Reads a replay from the file at <code>path</code>.
+	 */
+	public static TetrisReplay read(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER);
+			readFully(channel, header);
+			
+			if(header.getInt() != MAGIC) {
+				throw new IOException("The file '" + path + "' is not a replay");
+			}
+			
+			TetrisReplay replay = new TetrisReplay(
+				header.getLong(),
+				header.getInt(),
+				header.getInt(),
+				header.getInt(),
+				header.get() != 0
+			);
+			
+			replay.frames = header.getLong();
+			replay.frame = header.getLong();
+			replay.score = header.getInt();
+			replay.lines = header.getInt();
+			replay.checksum = header.getLong();
+			replay.length = header.getInt();
+			
+			// A broken length would otherwise allocate up to 2 GB before the read fails
+			if(replay.length < 0 || replay.length > channel.size() - HEADER) {
+				throw new IOException("The replay '" + path + "' says it has " + replay.length + " bytes of input but the file has " + (channel.size() - HEADER));
+			}
+			
+			replay.data = new byte[replay.length];
+			
+			readFully(channel, ByteBuffer.wrap(replay.data));
+			return replay;
+		} finally {
+			channel.close();
+		}
+	}
+	
+	private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer) < 0) throw new EOFException();
+		}
+		
+		buffer.flip();
+	}
+	
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Returns the amount of recorded frames.
+	 */
+	public long getFrames() {
+		return frames;
+	}
+	
+	public int getScore() {
+		return score;
+	}
+	
+	public int getLines() {
+		return lines;
+	}
+	
+	/**
+	 * Returns the size of the encoded inputs in bytes.
+	 */
+	public int getLength() {
+		return length;
+	}
+	
+	/**
+	 * Plays and verifies every replay file given as an argument.
+	 */
+	public static void main(String[] args) throws IOException {
+		long start = System.nanoTime();
+		long frames = 0;
+		int failed = 0;
+		
+		for(String arg : args) {
+			TetrisReplay replay = read(Paths.get(arg));
+			frames += replay.frames;
+			
+			if(!replay.verify()) {
+				System.out.println("Replay '" + arg + "' did not match");
+				failed ++;
+			}
+		}
+		
+		double time = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d replays, %d failed, %d frames in %.3f s (%.0f frames/s)%n",
+			args.length, failed, frames, time, frames / time
+		);
+	}
+}
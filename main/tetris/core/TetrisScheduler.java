@@ -0,0 +1,472 @@
+package main.tetris.core;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class ticks a large amount of live {@link TetrisSimulator} games in real time, one frame
+ * every {@link TetrisImpl#UNIT} seconds, on a fixed amount of worker threads.
+ *
+ * <p>
+ *
+ * The games are put in groups of at most {@link #getGroupSize() groupSize} games and each group is
+ * ticked by one worker in a tight loop. Every worker has its own deque of groups, one worker for
+ * every core by default. When a worker has ticked all of its groups for the current frame it
+ * looks for a worker that can't finish its groups before the frame ends, judged from how long
+ * its groups have taken to tick so far. It then steals at most half of the groups that worker
+ * hasn't ticked yet. A stolen group stays with the worker that stole it, so groups only move when
+ * a worker has more than it can handle and not every time another worker finishes first.
+ *
+ * <p>
+ *
+ * A group that finishes a frame after the next frame should have started is counted as an
+ * {@link #getOverruns() overrun}. A group that falls more than {@link TetrisImpl#MAX_CATCHUP} frames behind
+ * skips the missing frames and they are counted as {@link #getSkippedFrames() skipped}.
+ *
+ * <p>
+ *
+ * Games can be added while the scheduler is running. A game that is over is removed
+ * from its group the next time the group is ticked, and a group without games is dropped.
+ * Only games with {@link TetrisSimulator#autoReset autoReset} turned off are ever over,
+ * a game that resets itself is ticked until the scheduler is stopped.
+ */
+public class TetrisScheduler {
+	/**
+	 * A group of games that is always ticked together by one worker.
+	 */
+	private static class Group {
+		final TetrisSimulator[] games;
+		final TetrisPolicy[] policies;
+		int size;
+		
+		/**
+		 * This is set when the last game of the group is over. A closed group takes no
+		 * new games and is dropped by the worker that ticked it.
+		 */
+		boolean closed;
+		
+		/**
+		 * This is the last frame the group was ticked for and is only changed by
+		 * the worker that has taken the group from a deque.
+		 */
+		long frame;
+		
+		Group(int capacity, long frame) {
+			games = new TetrisSimulator[capacity];
+			policies = new TetrisPolicy[capacity];
+			this.frame = frame;
+		}
+		
+		synchronized boolean add(TetrisSimulator tetris, TetrisPolicy policy) {
+			if(closed || size == games.length) return false;
+			
+			games[size] = tetris;
+			policies[size] = policy;
+			size ++;
+			
+			return true;
+		}
+		
+		synchronized int tick() {
+			int ticks = 0;
+			for(int i = 0; i < size; i++) {
+				TetrisSimulator tetris = games[i];
+				
+				if(tetris.isGameOver()) {
+					size --;
+					games[i] = games[size];
+					policies[i] = policies[size];
+					games[size] = null;
+					policies[size] = null;
+					i --;
+					continue;
+				}
+				
+				tetris.tick(policies[i].getInput(tetris));
+				ticks ++;
+			}
+			
+			if(size == 0) closed = true;
+			
+			return ticks;
+		}
+	}
+	
+	private final int groupSize;
+	private final Worker[] workers;
+	private final List<Group> groups = new CopyOnWriteArrayList<Group>();
+	
+	private final LongAdder ticks = new LongAdder();
+	private final LongAdder overruns = new LongAdder();
+	private final LongAdder skipped = new LongAdder();
+	private final LongAdder steals = new LongAdder();
+	private final AtomicLong maxLateness = new AtomicLong();
+	
+	private volatile boolean running;
+	private volatile long start;
+	
+	/**
+	 * Creates a scheduler with one worker for every available core and groups of 64 games.
+	 */
+	public TetrisScheduler() {
+		this(Runtime.getRuntime().availableProcessors(), 64);
+	}
+	
+	public TetrisScheduler(int workers, int groupSize) {
+		if(workers < 1) throw new IllegalArgumentException("At least one worker is needed");
+		if(groupSize < 1) throw new IllegalArgumentException("The groups must have room for at least one game");
+		
+		this.groupSize = groupSize;
+		this.workers = new Worker[workers];
+		for(int i = 0; i < workers; i++) {
+			this.workers[i] = new Worker(i);
+		}
+	}
+	
+	/**
+	 * Adds a game that is ticked every frame with the input from <code>policy</code>. The game
+	 * is put in the first group with room for it, or in a new group given to the worker with
+	 * the fewest groups.
+	 */
+	public void add(TetrisSimulator tetris, TetrisPolicy policy) {
+		for(Group group : groups) {
+			if(group.add(tetris, policy)) return;
+		}
+		
+		synchronized(groups) {
+			// Another thread could have made a new group while this one was waiting
+			for(Group group : groups) {
+				if(group.add(tetris, policy)) return;
+			}
+			
+			Group group = new Group(groupSize, getFrame());
+			group.add(tetris, policy);
+			groups.add(group);
+			
+			Worker target = workers[0];
+			for(Worker worker : workers) {
+				if(worker.groups.size() < target.groups.size()) target = worker;
+			}
+			
+			target.groups.offerLast(group);
+		}
+	}
+	
+	/**
+	 * Starts all workers. The first frame starts right away.
+	 */
+	public void start() {
+		if(running) return;
+		
+		start = System.nanoTime();
+		running = true;
+		
+		for(Group group : groups) {
+			group.frame = -1;
+		}
+		
+		for(Worker worker : workers) {
+			worker.thread = new Thread(worker, "Tetris Scheduler " + worker.id);
+			worker.thread.setDaemon(true);
+			worker.thread.start();
+		}
+	}
+	
+	/**
+	 * Stops all workers and waits for them to finish their current frame.
+	 */
+	public void stop() throws InterruptedException {
+		running = false;
+		
+		for(Worker worker : workers) {
+			if(worker.thread == null) continue;
+			
+			LockSupport.unpark(worker.thread);
+			worker.thread.join();
+			worker.thread = null;
+		}
+	}
+	
+	/**
+	 * Returns the frame that should be ticked right now.
+	 */
+	public long getFrame() {
+		if(!running) return -1;
+		
+		return (System.nanoTime() - start) / TetrisImpl.TICK_NANOS;
+	}
+	
+	private class Worker implements Runnable {
+		final int id;
+		final ConcurrentLinkedDeque<Group> groups = new ConcurrentLinkedDeque<Group>();
+		Thread thread;
+		
+		/**
+		 * This is the frame the worker is ticking and the amount of its groups that
+		 * haven't been ticked for it yet.
+		 */
+		volatile long frame = -1;
+		final AtomicInteger remaining = new AtomicInteger();
+		
+		/**
+		 * This is the average time in nanoseconds it has taken this worker to tick one group.
+		 */
+		volatile long groupNanos;
+		
+		Worker(int id) {
+			this.id = id;
+		}
+		
+		public void run() {
+			long last = -1;
+			
+			while(running) {
+				long frame = getFrame();
+				
+				if(frame <= last) {
+					LockSupport.parkNanos(start + (last + 1) * TetrisImpl.TICK_NANOS - System.nanoTime());
+					continue;
+				}
+				
+				last = frame;
+				
+				runOwn(frame);
+				steal(frame);
+			}
+		}
+		
+		/**
+		 * Ticks the groups of this worker. The ticked groups are moved to the back of the
+		 * deque so the frame is done when the first group has already been ticked.
+		 */
+		private void runOwn(long frame) {
+			remaining.set(groups.size());
+			this.frame = frame;
+			
+			Group group;
+			while((group = groups.pollFirst()) != null) {
+				if(group.frame >= frame) {
+					groups.offerFirst(group);
+					break;
+				}
+				
+				tick(group, frame);
+				keep(group);
+				remaining.decrementAndGet();
+			}
+			
+			remaining.set(0);
+		}
+		
+		/**
+		 * Helps the other workers that won't finish this frame in time by taking at most half
+		 * of the groups they haven't ticked yet. A stolen group is kept by this worker. This is
+		 * repeated until no worker needs help.
+		 */
+		private void steal(long frame) {
+			boolean stolen = true;
+			while(stolen && running) {
+				stolen = false;
+				
+				for(int i = 1; i < workers.length; i++) {
+					Worker victim = workers[(id + i) % workers.length];
+					
+					int count = victim.getBehind(frame);
+					for(int j = (count + 1) / 2; j > 0; j--) {
+						Group group = victim.groups.pollFirst();
+						if(group == null) break;
+						
+						if(group.frame >= frame) {
+							victim.groups.offerFirst(group);
+							break;
+						}
+						
+						victim.remaining.decrementAndGet();
+						tick(group, frame);
+						keep(group);
+						steals.increment();
+						stolen = true;
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Puts a ticked group at the back of the deque of this worker, or drops it if all of its games are over.
+		 */
+		private void keep(Group group) {
+			if(group.closed) {
+				TetrisScheduler.this.groups.remove(group);
+				return;
+			}
+			
+			groups.offerLast(group);
+		}
+		
+		/**
+		 * Returns the amount of groups this worker hasn't ticked for <code>frame</code> if they
+		 * would take longer than the time that is left of the frame, otherwise <code>0</code>.
+		 */
+		private int getBehind(long frame) {
+			// A worker that hasn't started the frame yet has all of its groups left
+			int left = this.frame < frame ? groups.size():remaining.get();
+			if(left <= 0) return 0;
+			
+			long time = start + (frame + 1) * TetrisImpl.TICK_NANOS - System.nanoTime();
+			return left * groupNanos > time ? left:0;
+		}
+		
+		private void tick(Group group, long frame) {
+			long begin = System.nanoTime();
+			
+			long behind = frame - group.frame;
+			if(behind > TetrisImpl.MAX_CATCHUP) {
+				skipped.add(behind - 1);
+				group.frame = frame - 1;
+			}
+			
+			int count = 0;
+			while(group.frame < frame) {
+				count += group.tick();
+				group.frame ++;
+			}
+			
+			ticks.add(count);
+			
+			long end = System.nanoTime();
+			groupNanos += (end - begin - groupNanos) / 8;
+			
+			// The frame has to be done before the next one starts
+			long late = end - (start + (frame + 1) * TetrisImpl.TICK_NANOS);
+			if(late > 0) {
+				overruns.increment();
+				maxLateness.accumulateAndGet(late, Math::max);
+			}
+		}
+	}
+	
+	public int getGroupSize() {
+		return groupSize;
+	}
+	
+	public int getWorkers() {
+		return workers.length;
+	}
+	
+	/**
+	 * Returns the amount of groups currently owned by the specified worker.
+	 */
+	public int getGroups(int worker) {
+		return workers[worker].groups.size();
+	}
+	
+	/**
+	 * Returns the amount of games that aren't over yet, counted when their groups were last ticked.
+	 */
+	public int getGames() {
+		int games = 0;
+		for(Group group : groups) {
+			games += group.size;
+		}
+		
+		return games;
+	}
+	
+	/**
+	 * Returns the total amount of game ticks.
+	 */
+	public long getTicks() {
+		return ticks.sum();
+	}
+	
+	/**
+	 * Returns the amount of times a group finished a frame after the next frame should have started.
+	 */
+	public long getOverruns() {
+		return overruns.sum();
+	}
+	
+	/**
+	 * Returns the amount of frames that were skipped because a group was too far behind.
+	 */
+	public long getSkippedFrames() {
+		return skipped.sum();
+	}
+	
+	/**
+	 * Returns the amount of groups that were ticked by another worker than the one that owned them.
+	 */
+	public long getSteals() {
+		return steals.sum();
+	}
+	
+	/**
+	 * Returns the longest time in nanoseconds a group finished after its deadline.
+	 */
+	public long getMaxLateness() {
+		return maxLateness.get();
+	}
+	
+	/**
+	 * Runs games in real time and prints the metrics of the scheduler every second. The arguments are
+	 * <code>--games &lt;n&gt;</code>, <code>--workers &lt;n&gt;</code>, <code>--group &lt;n&gt;</code>,
+	 * <code>--seconds &lt;n&gt;</code> and <code>--policy bot|random</code>. The games are not reset
+	 * when they are over, so the amount of games goes down as they are lost.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int games = 10000;
+		int workers = Runtime.getRuntime().availableProcessors();
+		int group = 64;
+		int seconds = 10;
+		String policy = "random";
+		
+		for(int i = 0; i < args.length; i++) {
+			switch(args[i]) {
+				case "--games": games = Integer.parseInt(args[++i]); break;
+				case "--workers": workers = Integer.parseInt(args[++i]); break;
+				case "--group": group = Integer.parseInt(args[++i]); break;
+				case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+				case "--policy": policy = args[++i]; break;
+				default: throw new IllegalArgumentException("Unknown argument '" + args[i] + "'");
+			}
+		}
+		
+		TetrisScheduler scheduler = new TetrisScheduler(workers, group);
+		for(int i = 0; i < games; i++) {
+			TetrisSimulator tetris = new TetrisSimulator(i);
+			tetris.autoReset = false;
+			
+			switch(policy) {
+				case "bot": scheduler.add(tetris, new TetrisBot(tetris)); break;
+				case "random": scheduler.add(tetris, TetrisPolicy.random(i)); break;
+				default: throw new IllegalArgumentException("Unknown policy '" + policy + "'");
+			}
+		}
+		
+		scheduler.start();
+		
+		long ticks = 0;
+		for(int s = 1; s <= seconds; s++) {
+			Thread.sleep(1000);
+			
+			StringBuilder groups = new StringBuilder();
+			for(int i = 0; i < scheduler.getWorkers(); i++) {
+				groups.append(i == 0 ? "":" ").append(scheduler.getGroups(i));
+			}
+			
+			long total = scheduler.getTicks();
+			System.out.printf("%2d s: %d games, %d ticks/s, %d overruns, %d skipped, %d steals, max late %.2f ms, groups [%s]%n",
+				s, scheduler.getGames(), total - ticks, scheduler.getOverruns(), scheduler.getSkippedFrames(),
+				scheduler.getSteals(), scheduler.getMaxLateness() / 1e6, groups
+			);
+			ticks = total;
+		}
+		
+		scheduler.stop();
+	}
+}
@@ -1,326 +1,632 @@
-package main.tetris.core;
-
-/**
- * This is the movement implementation of the {@link Tetris tetris} class.
- */
-public class TetrisSimulator extends Tetris implements TetrisSimulatorImpl {
-	/**
-	 * This is the current tick frame.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected long frame = 0;
-	
-	/**
-	 * This is the last tick the tetromino rotated.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected long lastRotationInput = 0;
-	
-	/**
-	 * This is the last tick the tetromino moved its position key was held down.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected long lastMovementInput = 0;
-	
-	/**
-	 * This is the last tick the softdrop key was held down.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected long lastSoftdropInput = 0;
-	
-	/**
-	 * This is the frame the {@link Tetris#current current} tetromino spawned on screen.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected long lastSpawnFrame = 0;
-	
-	/**
-	 * This is the frame the {@link Tetris#current current} tetromino started touching the ground.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected long lastLockFrame = 0;
-	
-	/**
-	 * This is the frame the {@link Tetris#current current} tetromino fell.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected long lastDropFrame = 0;
-	
-	/**
-	 * This is the current proggress of leveling up.
-	 * 
-	 * <p>
-	 * 
-	 * I'm using the variable leveling system mening that you level
-	 * up after <code>5 * {@link Tetris#level level}</code> lines.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	protected int levelProgress = 0;
-	
-	private boolean fastMove = false;
-	private boolean switched = false;
-	private boolean rotated  = false;
-	private boolean locking  = false;
-	private int softdropScore = 0;
-	private int harddropScore = 0;
-	
-	public TetrisSimulator() {
-		reset();
-	}
-	
-	//public static final void main(String[] args) {}
-	
-	public void tick(boolean left, boolean right, boolean hold, boolean rotateleft, boolean rotateright, boolean rotateflip, boolean softdrop, boolean harddrop) {
-		frame ++;
-		
-		if(hold && !switched) {
-			if(holding == null) {
-				holding = current;
-				current = next;
-				next = generateRandomTetromino();
-			} else {
-				Tetromino tmp = current;
-				current = holding;
-				holding = tmp;
-			}
-			
-			harddropScore = 0;
-			softdropScore = 0;
-			
-			respawn();
-			
-			switched = true;
-			
-			return;
-		}
-		
-		tickRotation(rotateleft, rotateright, rotateflip);
-		tickMovement(left, right);
-		
-		if(frame - lastSpawnFrame < ARE) {
-			return;
-		}
-		tickGravity(softdrop, harddrop);
-	}
-	
-	public void tickGravity(boolean softdrop, boolean harddrop) {
-		lastDropFrame ++;
-		
-		if(lastDropFrame * UNIT > getLevelSpeed()) {
-			if(!locking) y --;
-			
-			lastDropFrame = 0;
-		}
-		
-		if(isLocationBlocked(x, y - 1, r)) {
-			if(!locking) {
-				locking = true;
-				lastLockFrame = frame;
-			}
-		} else locking = false;
-		
-		if(locking) {
-			if(frame - lastLockFrame > 30) {
-				writeToArray();
-				
-				return;
-			}
-		}
-		
-		if(harddrop) {
-			for(int a = y; a > -4; a--) {
-				if(isLocationBlocked(x, a - 1, r)) {
-					y = a;
-					harddropScore += 18 - a;
-					
-					break;
-				}
-			}
-			
-			
-			writeToArray();
-			
-			return;
-		}
-		
-		if(softdrop && frame - lastSoftdropInput > 1) {
-			lastSoftdropInput = frame;
-			
-			collisionMovement(x, y - 1);
-		}
-	}
-	
-	public void tickMovement(boolean left, boolean right) {
-		int nx = x;
-		
-		if(left) {
-			if(!fastMove) {
-				fastMove = true;
-				nx --;
-				lastMovementInput = frame;
-			} else if(frame - lastMovementInput > DAS) {
-				nx --;
-				lastMovementInput += ARR;
-			}
-		} else if(right) {
-			if(!fastMove) {
-				fastMove = true;
-				nx ++;
-				lastMovementInput = frame;
-			} else if(frame - lastMovementInput > DAS) {
-				nx ++;
-				lastMovementInput = frame - DAS + ARR;
-			}
-		} else fastMove = false;
-		
-		if(x != nx && collisionMovement(nx, y)) {
-			if(x == nx)
-				lastLockFrame = frame;
-		}
-	}
-	
-	public void tickRotation(boolean rotateleft, boolean rotateright, boolean rotateflip) {
-		int nr = r;
-		
-		if(rotateleft) {
-			if(!rotated) {
-				rotated = true;
-				nr ++;
-			}
-		} else if(rotateright) {
-			if(!rotated) {
-				rotated = true;
-				nr --;
-			}
-		} else if(rotateflip) {
-			if(!rotated) {
-				rotated = true;
-				nr += 2;
-			}
-		} else rotated = false;
-		nr &= 3;
-		
-		if(r != nr && collisionRotation(nr))
-			lastLockFrame = frame;
-	}
-	
-	public void reset() {
-		lastMovementInput = 0;
-		lastRotationInput = 0;
-		lastSoftdropInput = 0;
-		lastSpawnFrame = 0;
-		lastLockFrame = 0;
-		lastDropFrame = 0;
-		harddropScore = 0;
-		softdropScore = 0;
-		levelProgress = 0;
-		frame = 0;
-		
-		fastMove = false;
-		switched = false;
-		rotated = false;
-		locking = false;
-		
-		super.reset();
-	}
-	
-	public void writeToArray() {
-		int tetromino = current.getRotated(r);
-		
-		for(int i = 0; i < 16; i++) {
-			int xp = (i &  3) + x;
-			int yp = (i >> 2) + y;
-			int bit = (tetromino >> i) & 1;
-			
-			if(bit < 1)
-				continue;
-			
-			if(yp < 0 || yp >= HEIGHT || xp < 0 || xp >= WIDTH) continue;
-			
-			board[xp + yp * WIDTH] = current.id + 1;
-		}
-		
-		calculateScore();
-		
-		current = next;
-		next = generateRandomTetromino();
-		
-		respawn();
-		
-		lastSpawnFrame = frame;
-		switched = false;
-		locking  = false;
-		
-		if(isLocationBlocked(x, y - 1, r))
-			reset();
-		else
-			y--;
-	}
-	
-	public void calculateScore() {
-		boolean tspin = false;
-		if(current == Tetromino.T) { // Check for T-Spins
-			if(isLocationBlocked(x - 1, y, r)
-			&& isLocationBlocked(x + 1, y, r)
-			&& isLocationBlocked(x, y + 1, r)) tspin = true;
-		}
-		
-		int cleared = clearRows();
-		lines += cleared;
-		
-		if(cleared == 1) levelProgress += 1;
-		else if(cleared == 2) levelProgress += 3;
-		else if(cleared == 3) levelProgress += 5;
-		else if(cleared == 4) levelProgress += 8;
-		
-		if(levelProgress > (5 * (level + 1))) {
-			levelProgress -= 5 * (level);
-			
-			level ++;
-		}
-		
-		if(softdropScore > 20) softdropScore = 20;
-		if(harddropScore > 20) harddropScore = 20;
-		if(harddropScore < 0) harddropScore = 0;
-		
-		score += softdropScore;
-		score += harddropScore * 2;
-		
-		if(tspin) {
-			if(cleared == 0) score += 100 * (level + 1);
-			if(cleared == 1) score += 400 * (level + 1);
-			if(cleared == 2) score += 1200 * (level + 1);
-			if(cleared == 3) score += 1600 * (level + 1);
-		} else {
-			if(cleared == 2) score += 300 * (level + 1);
-			if(cleared == 3) score += 500 * (level + 1);
-			if(cleared == 4) score += 800 * (level + 1);
-		}
-		
-		softdropScore = 0;
-		harddropScore = 0;
-	}
-	
-	public long getFrame() {
-		return frame;
-	}
-	
-	public long getLockingIndex() {
-		if(!locking) return 0;
-		long index = frame - lastLockFrame;
-		
-		return index > 30 ? 30:index;
-	}
-	
-	public int getLevelProgress() {
-		return levelProgress;
-	}
-}
+package main.tetris.core;
+
+/**
+ * This is the movement implementation of the {@link Tetris tetris} class.
+ */
+public class TetrisSimulator extends Tetris implements TetrisSimulatorImpl {
+	/**
+	 * This is the current tick frame.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long frame = 0;
+	
+	/**
+	 * This is the last tick the tetromino rotated.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long lastRotationInput = 0;
+	
+	/**
+	 * This is the last tick the tetromino moved its position key was held down.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long lastMovementInput = 0;
+	
+	/**
+	 * This is the last tick the softdrop key was held down.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long lastSoftdropInput = 0;
+	
+	/**
+	 * This is the frame the {@link Tetris#current current} tetromino spawned on screen.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long lastSpawnFrame = 0;
+	
+	/**
+	 * This is the frame the {@link Tetris#current current} tetromino started touching the ground.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long lastLockFrame = 0;
+	
+	/**
+	 * This is how far the {@link Tetris#current current} tetromino has fallen since
+	 * it last moved down one row, measured in {@link TetrisImpl#GRAVITY_UNIT} of a cell.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int dropProgress = 0;
+	
+	/**
+	 * This is the current proggress of leveling up.
+	 * 
+	 * <p>
+	 * 
+	 * I'm using the variable leveling system mening that you level
+	 * up after <code>5 * {@link Tetris#level level}</code> lines.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected int levelProgress = 0;
+	
+	/**
+	 * This is the amount of tetrominos that has been locked since the game was created.
+	 * Unlike the other counters this is not cleared when the game is {@link #reset}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	protected long pieces = 0;
+	
+	/**
+	 * If this is <code>true</code> the game will {@link #reset} itself when a new
+	 * tetromino can't spawn. Otherwise the game stops and every call to {@link #tick}
+	 * is ignored until the game is reset.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public boolean autoReset = true;
+	
+	private boolean gameOver = false;
+	private boolean fastMove = false;
+	private boolean switched = false;
+	private boolean rotated  = false;
+	private boolean locking  = false;
+	private int softdropScore = 0;
+	private int harddropScore = 0;
+	
+	/**
+	 * This is the amount of times the game has been reset and is used by {@link #place} to see
+	 * if the game restarted.
+	 */
+	private long resets = 0;
+	
+	public TetrisSimulator() {
+		reset();
+	}
+	
+	/**
+	 * Creates a game where the pieces are generated from the specified <code>seed</code>.
+	 * Two games with the same seed and the same inputs will always play the same way.
+	 */
+	public TetrisSimulator(long seed) {
+		setSeed(seed);
+		reset();
+	}
+	
+	//public static final void main(String[] args) {}
+	
+	public void tick(int input) {
+		tick(
+			(input & LEFT) != 0,
+			(input & RIGHT) != 0,
+			(input & HOLD) != 0,
+			(input & ROTATE_LEFT) != 0,
+			(input & ROTATE_RIGHT) != 0,
+			(input & ROTATE_FLIP) != 0,
+			(input & SOFTDROP) != 0,
+			(input & HARDDROP) != 0
+		);
+	}
+	
+	public void tick(boolean left, boolean right, boolean hold, boolean rotateleft, boolean rotateright, boolean rotateflip, boolean softdrop, boolean harddrop) {
+		if(gameOver) return;
+		frame ++;
+		
+		if(hold && hold()) {
+			return;
+		}
+		
+		tickRotation(rotateleft, rotateright, rotateflip);
+		tickMovement(left, right);
+		
+		if(frame - lastSpawnFrame < ARE) {
+			return;
+		}
+		tickGravity(softdrop, harddrop);
+	}
+	
+	public long advance(int input, long frames) {
+		long ticks = 0;
+		
+		// The frame counter restarts when the game resets so the remaining frames are counted instead
+		while(frames > 0 && !gameOver) {
+			long skip = Math.min(getNextEvent(input) - frame - 1, frames - 1);
+			
+			// Every frame before the next event only moves the gravity forward
+			if(skip > 0) {
+				long gravityFrames = frame + skip - Math.max(frame, lastSpawnFrame + ARE - 1);
+				if(gravityFrames > 0) {
+					dropProgress += getGravity() * (int)gravityFrames;
+				}
+				
+				frame += skip;
+				frames -= skip;
+			}
+			
+			tick(input);
+			frames --;
+			ticks ++;
+		}
+		
+		return ticks;
+	}
+	
+	public long getNextEvent(int input) {
+		if(gameOver) return Long.MAX_VALUE;
+		
+		long next = frame + 1;
+		
+		if((input & HOLD) != 0 && !switched) return next;
+		
+		boolean rotate = (input & (ROTATE_LEFT | ROTATE_RIGHT | ROTATE_FLIP)) != 0;
+		if(rotate != rotated) return next;
+		
+		long event = Long.MAX_VALUE;
+		if((input & (LEFT | RIGHT)) != 0) {
+			if(!fastMove) return next;
+			
+			// This is the first frame where the DAS or ARR moves the tetromino again
+			event = Math.max(next, lastMovementInput + DAS + 1);
+		} else if(fastMove) return next;
+		
+		// Gravity, locking and softdrop only start when the spawn delay is over
+		long start = Math.max(next, lastSpawnFrame + ARE);
+		if((input & HARDDROP) != 0) return Math.min(event, start);
+		
+		boolean blocked = isLocationBlocked(x, y - 1, r);
+		if(blocked != locking) return Math.min(event, start);
+		
+		if(locking) {
+			event = Math.min(event, Math.max(start, lastLockFrame + 31));
+		}
+		
+		if((input & SOFTDROP) != 0) {
+			event = Math.min(event, Math.max(start, lastSoftdropInput + 2));
+		}
+		
+		int gravity = getGravity();
+		long drop = (GRAVITY_UNIT - dropProgress + gravity - 1) / gravity;
+		event = Math.min(event, start + Math.max(drop, 1) - 1);
+		
+		return event;
+	}
+	
+	public boolean hold() {
+		if(switched) return false;
+		
+		if(holding == null) {
+			holding = current;
+			current = next;
+			next = generateRandomTetromino();
+		} else {
+			Tetromino tmp = current;
+			current = holding;
+			holding = tmp;
+		}
+		
+		harddropScore = 0;
+		softdropScore = 0;
+		
+		respawn();
+		
+		switched = true;
+		
+		return true;
+	}
+	
+	public int place(int x, int r, boolean hold) {
+		if(gameOver || (hold && switched)) return -1;
+		
+		// Holding respawns the tetromino at the top of the playfield
+		int from = hold ? 18:y;
+		
+		Tetromino t = getPlacedTetromino(hold);
+		if(isLocationBlocked(t, x, from, r)) return -1;
+		
+		if(hold) hold();
+		
+		this.x = x;
+		this.y = from;
+		this.r = r;
+		this.y -= getDropDistance();
+		
+		return lock();
+	}
+	
+	public int place(int x, int y, int r, boolean hold) {
+		if(gameOver || (hold && switched)) return -1;
+		
+		Tetromino t = getPlacedTetromino(hold);
+		if(isLocationBlocked(t, x, y, r) || !isLocationBlocked(t, x, y - 1, r)) return -1;
+		
+		if(hold) hold();
+		
+		this.x = x;
+		this.y = y;
+		this.r = r;
+		
+		return lock();
+	}
+	
+	/**
+	 * Returns the tetromino that will be placed if <code>hold</code> is used first.
+	 */
+	private Tetromino getPlacedTetromino(boolean hold) {
+		if(!hold) return current;
+		
+		return holding == null ? next:holding;
+	}
+	
+	/**
+	 * Returns <code>true</code> if the tetromino <code>t</code> would be blocked at the specified location.
+	 */
+	private boolean isLocationBlocked(Tetromino t, int x, int y, int r) {
+		Tetromino tmp = current;
+		current = t;
+		
+		boolean blocked = isLocationBlocked(x, y, r);
+		current = tmp;
+		
+		return blocked;
+	}
+	
+	/**
+	 * Locks the current tetromino where it is and scores it like a harddrop ending on the
+	 * same row. Returns the amount of cleared rows or {@link #RESET} if the game was reset.
+	 */
+	private int lock() {
+		harddropScore += 18 - y;
+		
+		long count = resets;
+		writeToArray();
+		
+		if(resets != count) return RESET;
+		
+		return Long.bitCount(clearedRows);
+	}
+	
+	public void tickGravity(boolean softdrop, boolean harddrop) {
+		int gravity = getGravity();
+		dropProgress += gravity;
+		
+		if(dropProgress >= GRAVITY_UNIT) {
+			if(!locking) {
+				y --;
+				
+				// Above 1G the tetromino can fall more than one row every frame
+				for(int i = dropProgress / GRAVITY_UNIT; i > 1 && !isLocationBlocked(x, y - 1, r); i--) {
+					y --;
+				}
+			}
+			
+			// Above 1G the part of a row left over is kept so the rows per frame average out to the gravity
+			dropProgress = gravity > GRAVITY_UNIT ? dropProgress % GRAVITY_UNIT:0;
+		}
+		
+		if(isLocationBlocked(x, y - 1, r)) {
+			if(!locking) {
+				locking = true;
+				lastLockFrame = frame;
+			}
+		} else locking = false;
+		
+		if(locking) {
+			if(frame - lastLockFrame > 30) {
+				writeToArray();
+				
+				return;
+			}
+		}
+		
+		if(harddrop) {
+			y -= getDropDistance();
+			harddropScore += 18 - y;
+			
+			writeToArray();
+			
+			return;
+		}
+		
+		if(softdrop && frame - lastSoftdropInput > 1) {
+			lastSoftdropInput = frame;
+			
+			collisionMovement(x, y - 1);
+		}
+	}
+	
+	public void tickMovement(boolean left, boolean right) {
+		int nx = x;
+		
+		if(left) {
+			if(!fastMove) {
+				fastMove = true;
+				nx --;
+				lastMovementInput = frame;
+			} else if(frame - lastMovementInput > DAS) {
+				nx --;
+				lastMovementInput += ARR;
+			}
+		} else if(right) {
+			if(!fastMove) {
+				fastMove = true;
+				nx ++;
+				lastMovementInput = frame;
+			} else if(frame - lastMovementInput > DAS) {
+				nx ++;
+				lastMovementInput = frame - DAS + ARR;
+			}
+		} else fastMove = false;
+		
+		if(x != nx && collisionMovement(nx, y)) {
+			if(x == nx)
+				lastLockFrame = frame;
+		}
+	}
+	
+	public void tickRotation(boolean rotateleft, boolean rotateright, boolean rotateflip) {
+		int nr = r;
+		
+		if(rotateleft) {
+			if(!rotated) {
+				rotated = true;
+				nr ++;
+			}
+		} else if(rotateright) {
+			if(!rotated) {
+				rotated = true;
+				nr --;
+			}
+		} else if(rotateflip) {
+			if(!rotated) {
+				rotated = true;
+				nr += 2;
+			}
+		} else rotated = false;
+		nr &= 3;
+		
+		if(r != nr && collisionRotation(nr))
+			lastLockFrame = frame;
+	}
+	
+	public void reset() {
+		lastMovementInput = 0;
+		lastRotationInput = 0;
+		lastSoftdropInput = 0;
+		lastSpawnFrame = 0;
+		lastLockFrame = 0;
+		dropProgress = 0;
+		harddropScore = 0;
+		softdropScore = 0;
+		levelProgress = 0;
+		frame = 0;
+		
+		gameOver = false;
+		fastMove = false;
+		switched = false;
+		rotated = false;
+		locking = false;
+		resets ++;
+		
+		super.reset();
+	}
+	
+	public void writeToArray() {
+		int color = current.id + 1;
+		int minY = current.getMinY(r);
+		int maxY = current.getMaxY(r);
+		
+		for(int i = minY; i <= maxY; i++) {
+			int yp = y + i;
+			if(yp < 0 || yp >= HEIGHT) continue;
+			
+			int mask = current.getRowMask(r, i);
+			fillRow(yp, (x < 0 ? (mask >> -x):(mask << x)) & FULL_ROW, color);
+		}
+		
+		version ++;
+		pieces ++;
+		
+		calculateScore();
+		
+		current = next;
+		next = generateRandomTetromino();
+		
+		respawn();
+		
+		lastSpawnFrame = frame;
+		switched = false;
+		locking  = false;
+		
+		if(isLocationBlocked(x, y - 1, r)) {
+			if(autoReset) reset();
+			else gameOver = true;
+		} else y--;
+	}
+	
+	public void calculateScore() {
+		boolean tspin = false;
+		if(current == Tetromino.T) { // Check for T-Spins
+			if(isLocationBlocked(x - 1, y, r)
+			&& isLocationBlocked(x + 1, y, r)
+			&& isLocationBlocked(x, y + 1, r)) tspin = true;
+		}
+		
+		int cleared = clearRows();
+		lines += cleared;
+		
+		if(cleared == 1) levelProgress += 1;
+		else if(cleared == 2) levelProgress += 3;
+		else if(cleared == 3) levelProgress += 5;
+		else if(cleared == 4) levelProgress += 8;
+		
+		if(levelProgress > (5 * (level + 1))) {
+			levelProgress -= 5 * (level);
+			
+			level ++;
+		}
+		
+		if(softdropScore > 20) softdropScore = 20;
+		if(harddropScore > 20) harddropScore = 20;
+		if(harddropScore < 0) harddropScore = 0;
+		
+		score += softdropScore;
+		score += harddropScore * 2;
+		
+		if(tspin) {
+			if(cleared == 0) score += 100 * (level + 1);
+			if(cleared == 1) score += 400 * (level + 1);
+			if(cleared == 2) score += 1200 * (level + 1);
+			if(cleared == 3) score += 1600 * (level + 1);
+		} else {
+			if(cleared == 2) score += 300 * (level + 1);
+			if(cleared == 3) score += 500 * (level + 1);
+			if(cleared == 4) score += 800 * (level + 1);
+		}
+		
+		softdropScore = 0;
+		harddropScore = 0;
+	}
+	
+	public void saveState(TetrisState state) {
+		System.arraycopy(board, 0, state.board, 0, board.length);
+		System.arraycopy(rows, 0, state.rows, 0, rows.length);
+		randomizer.save(state.random);
+		
+		state.version = version;
+		state.boardHash = boardHash;
+		System.arraycopy(heights, 0, state.heights, 0, heights.length);
+		System.arraycopy(filled, 0, state.filled, 0, filled.length);
+		state.aggregateHeight = aggregateHeight;
+		state.filledCells = filledCells;
+		state.rowTransitions = rowTransitions;
+		state.DAS = DAS;
+		state.ARR = ARR;
+		state.ARE = ARE;
+		state.level = level;
+		state.lines = lines;
+		state.score = score;
+		state.combo = combo;
+		state.current = current;
+		state.holding = holding;
+		state.next = next;
+		state.r = r;
+		state.x = x;
+		state.y = y;
+		
+		state.frame = frame;
+		state.lastRotationInput = lastRotationInput;
+		state.lastMovementInput = lastMovementInput;
+		state.lastSoftdropInput = lastSoftdropInput;
+		state.lastSpawnFrame = lastSpawnFrame;
+		state.lastLockFrame = lastLockFrame;
+		state.dropProgress = dropProgress;
+		state.levelProgress = levelProgress;
+		state.pieces = pieces;
+		state.softdropScore = softdropScore;
+		state.harddropScore = harddropScore;
+		state.autoReset = autoReset;
+		state.gameOver = gameOver;
+		state.fastMove = fastMove;
+		state.switched = switched;
+		state.rotated = rotated;
+		state.locking = locking;
+	}
+	
+	public void loadState(TetrisState state) {
+		System.arraycopy(state.board, 0, board, 0, board.length);
+		System.arraycopy(state.rows, 0, rows, 0, rows.length);
+		randomizer.load(state.random);
+		
+		// The version has to keep going up or a cache made after the save would look current
+		version = Math.max(version, state.version) + 1;
+		boardHash = state.boardHash;
+		System.arraycopy(state.heights, 0, heights, 0, heights.length);
+		System.arraycopy(state.filled, 0, filled, 0, filled.length);
+		aggregateHeight = state.aggregateHeight;
+		filledCells = state.filledCells;
+		rowTransitions = state.rowTransitions;
+		
+		// The saved rows might be full so all rows have to be checked
+		dirtyLow = 0;
+		dirtyHigh = HEIGHT - 1;
+		clearedRows = 0;
+		DAS = state.DAS;
+		ARR = state.ARR;
+		ARE = state.ARE;
+		level = state.level;
+		lines = state.lines;
+		score = state.score;
+		combo = state.combo;
+		current = state.current;
+		holding = state.holding;
+		next = state.next;
+		r = state.r;
+		x = state.x;
+		y = state.y;
+		
+		frame = state.frame;
+		lastRotationInput = state.lastRotationInput;
+		lastMovementInput = state.lastMovementInput;
+		lastSoftdropInput = state.lastSoftdropInput;
+		lastSpawnFrame = state.lastSpawnFrame;
+		lastLockFrame = state.lastLockFrame;
+		dropProgress = state.dropProgress;
+		levelProgress = state.levelProgress;
+		pieces = state.pieces;
+		softdropScore = state.softdropScore;
+		harddropScore = state.harddropScore;
+		autoReset = state.autoReset;
+		gameOver = state.gameOver;
+		fastMove = state.fastMove;
+		switched = state.switched;
+		rotated = state.rotated;
+		locking = state.locking;
+	}
+	
+	public long getFrame() {
+		return frame;
+	}
+	
+	public long getLockingIndex() {
+		if(!locking) return 0;
+		long index = frame - lastLockFrame;
+		
+		return index > 30 ? 30:index;
+	}
+	
+	public boolean isGameOver() {
+		return gameOver;
+	}
+	
+	/**
+	 * Returns <code>true</code> if the current tetromino came from {@link #hold()} and can't be held again.
+	 */
+	public boolean isSwitched() {
+		return switched;
+	}
+	
+	public int getLevelProgress() {
+		return levelProgress;
+	}
+	
+	public long getPieces() {
+		return pieces;
+	}
+}
@@ -0,0 +1,729 @@
+package main.tetris.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.SplittableRandom;
+
+/**
+ * This class plays many {@link TetrisSimulator} games at once with the state of every game
+ * stored in primitive arrays instead of one object per game. All games are advanced with
+ * a single call to {@link #tick(int[])} and follow exactly the same rules as {@link TetrisSimulator}.
+ *
+ * <p>
+ *
+ * Every row of a playfield is stored as a 16 bit lane with three wall cells on both sides, and
+ * the playfields are padded with full rows above and below. This makes it possible to read the
+ * four rows under a tetromino as one <code>long</code> and check a collision with a single
+ * <code>and</code> against the four rows of the tetromino, walls and floor included.
+ *
+ * <p>
+ *
+ * Only the {@link TetrisRandomizer.Bag 7-bag} randomizer is supported and the colors of the
+ * cells are not stored. The settings {@link #DAS}, {@link #ARR}, {@link #ARE} and
+ * {@link #autoReset} are shared by all games.
+ *
+ * @see <a href="https://tetris.com/">https://tetris.com/</a>
+ */
+public class TetrisSimulatorArray {
+	public static final int WIDTH = 10;
+	public static final int HEIGHT = 40;
+	
+	private static final int FULL_ROW = (1 << WIDTH) - 1;
+	
+	/**
+	 * An empty row has three wall cells on each side and a full row has all sixteen bits set.
+	 */
+	private static final int EMPTY_LANE = 0b111 | (0b111 << (WIDTH + 3));
+	private static final int FULL_LANE = 0xffff;
+	
+	/**
+	 * This is the amount of full rows above and below every playfield.
+	 */
+	private static final int PAD = 8;
+	private static final int STRIDE = HEIGHT + PAD * 2;
+	
+	private static final VarHandle LANES = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	
+	/**
+	 * These are the four rows of every tetromino and rotation packed into 16 bit lanes.
+	 */
+	private static final long[] PIECE_LANES = new long[7 * 4];
+	private static final Tetromino[] PIECES = Tetromino.values();
+	
+	private static final int GAME_OVER = 1;
+	private static final int FAST_MOVE = 2;
+	private static final int SWITCHED  = 4;
+	private static final int ROTATED   = 8;
+	private static final int LOCKING   = 16;
+	
+	static {
+		for(Tetromino t : PIECES) {
+			for(int r = 0; r < 4; r++) {
+				long lanes = 0;
+				for(int i = 0; i < 4; i++) {
+					lanes |= (long)t.getRowMask(r, i) << (i << 4);
+				}
+				
+				PIECE_LANES[t.id * 4 + r] = lanes;
+			}
+		}
+	}
+	
+	/**
+	 * @see Tetris#DAS
+	 */
+	public int DAS = 5;
+	
+	/**
+	 * @see Tetris#ARR
+	 */
+	public int ARR = 8;
+	
+	/**
+	 * @see Tetris#ARE
+	 */
+	public int ARE = 30;
+	
+	/**
+	 * @see TetrisSimulator#autoReset
+	 */
+	public boolean autoReset = true;
+	
+	private final int games;
+	private final byte[] board;
+	private final TetrisRandomizer[] randomizers;
+	
+	private final byte[] current;
+	private final byte[] next;
+	private final byte[] holding;
+	private final byte[] flags;
+	private final int[] x;
+	private final int[] y;
+	private final int[] r;
+	
+	private final int[] level;
+	private final int[] lines;
+	private final int[] score;
+	private final int[] levelProgress;
+	private final int[] dropProgress;
+	private final int[] softdropScore;
+	private final int[] harddropScore;
+	
+	private final long[] frame;
+	private final long[] lastMovementInput;
+	private final long[] lastSoftdropInput;
+	private final long[] lastSpawnFrame;
+	private final long[] lastLockFrame;
+	private final long[] pieces;
+	
+	/**
+	 * Creates one game for every seed. The game <code>i</code> gets the same pieces as
+	 * <code>new TetrisSimulator(seeds[i])</code>.
+	 */
+	public TetrisSimulatorArray(long... seeds) {
+		games = seeds.length;
+		
+		board = new byte[games * STRIDE * 2];
+		randomizers = new TetrisRandomizer[games];
+		
+		current = new byte[games];
+		next = new byte[games];
+		holding = new byte[games];
+		flags = new byte[games];
+		x = new int[games];
+		y = new int[games];
+		r = new int[games];
+		
+		level = new int[games];
+		lines = new int[games];
+		score = new int[games];
+		levelProgress = new int[games];
+		dropProgress = new int[games];
+		softdropScore = new int[games];
+		harddropScore = new int[games];
+		
+		frame = new long[games];
+		lastMovementInput = new long[games];
+		lastSoftdropInput = new long[games];
+		lastSpawnFrame = new long[games];
+		lastLockFrame = new long[games];
+		pieces = new long[games];
+		
+		for(int g = 0; g < games; g++) {
+			randomizers[g] = new TetrisRandomizer.Bag(1);
+			randomizers[g].setSeed(seeds[g]);
+			
+			for(int i = 0; i < STRIDE; i++) {
+				setLane(g, i - PAD, FULL_LANE);
+			}
+			
+			reset(g);
+		}
+	}
+	
+	/**
+	 * Advances every game one frame where <code>input[i]</code> is the
+	 * {@link TetrisSimulatorImpl#tick(int) packed input} of the game <code>i</code>.
+	 */
+	public void tick(int[] input) {
+		for(int g = 0; g < games; g++) {
+			tick(g, input[g]);
+		}
+	}
+	
+	/**
+	 * Advances the game <code>g</code> one frame.
+	 *
+	 * @see TetrisSimulator#tick(int)
+	 */
+	public void tick(int g, int input) {
+		if((flags[g] & GAME_OVER) != 0) return;
+		long f = ++frame[g];
+		
+		if((input & TetrisSimulatorImpl.HOLD) != 0 && hold(g)) {
+			return;
+		}
+		
+		tickRotation(g, input);
+		tickMovement(g, input);
+		
+		if(f - lastSpawnFrame[g] < ARE) {
+			return;
+		}
+		tickGravity(g, input);
+	}
+	
+	private boolean hold(int g) {
+		if((flags[g] & SWITCHED) != 0) return false;
+		
+		if(holding[g] < 0) {
+			holding[g] = current[g];
+			current[g] = next[g];
+			next[g] = (byte)randomizers[g].next().id;
+		} else {
+			byte tmp = current[g];
+			current[g] = holding[g];
+			holding[g] = tmp;
+		}
+		
+		harddropScore[g] = 0;
+		softdropScore[g] = 0;
+		
+		respawn(g);
+		
+		flags[g] |= SWITCHED;
+		
+		return true;
+	}
+	
+	private void tickRotation(int g, int input) {
+		int nr = r[g];
+		boolean rotated = (flags[g] & ROTATED) != 0;
+		
+		if((input & TetrisSimulatorImpl.ROTATE_LEFT) != 0) {
+			if(!rotated) {
+				flags[g] |= ROTATED;
+				nr ++;
+			}
+		} else if((input & TetrisSimulatorImpl.ROTATE_RIGHT) != 0) {
+			if(!rotated) {
+				flags[g] |= ROTATED;
+				nr --;
+			}
+		} else if((input & TetrisSimulatorImpl.ROTATE_FLIP) != 0) {
+			if(!rotated) {
+				flags[g] |= ROTATED;
+				nr += 2;
+			}
+		} else flags[g] &= ~ROTATED;
+		nr &= 3;
+		
+		if(r[g] != nr && collisionRotation(g, nr))
+			lastLockFrame[g] = frame[g];
+	}
+	
+	private void tickMovement(int g, int input) {
+		int nx = x[g];
+		long f = frame[g];
+		boolean fastMove = (flags[g] & FAST_MOVE) != 0;
+		
+		if((input & TetrisSimulatorImpl.LEFT) != 0) {
+			if(!fastMove) {
+				flags[g] |= FAST_MOVE;
+				nx --;
+				lastMovementInput[g] = f;
+			} else if(f - lastMovementInput[g] > DAS) {
+				nx --;
+				lastMovementInput[g] += ARR;
+			}
+		} else if((input & TetrisSimulatorImpl.RIGHT) != 0) {
+			if(!fastMove) {
+				flags[g] |= FAST_MOVE;
+				nx ++;
+				lastMovementInput[g] = f;
+			} else if(f - lastMovementInput[g] > DAS) {
+				nx ++;
+				lastMovementInput[g] = f - DAS + ARR;
+			}
+		} else flags[g] &= ~FAST_MOVE;
+		
+		if(x[g] != nx && !isLocationBlocked(g, nx, y[g], r[g])) {
+			x[g] = nx;
+			lastLockFrame[g] = f;
+		}
+	}
+	
+	private void tickGravity(int g, int input) {
+		long f = frame[g];
+		
+		int gravity = TetrisImpl.GRAVITY[Math.min(Math.max(level[g], 0), TetrisImpl.GRAVITY.length - 1)];
+		dropProgress[g] += gravity;
+		
+		if(dropProgress[g] >= TetrisImpl.GRAVITY_UNIT) {
+			if((flags[g] & LOCKING) == 0) {
+				y[g] --;
+				
+				for(int i = dropProgress[g] / TetrisImpl.GRAVITY_UNIT; i > 1 && !isLocationBlocked(g, x[g], y[g] - 1, r[g]); i--) {
+					y[g] --;
+				}
+			}
+			
+			dropProgress[g] = gravity > TetrisImpl.GRAVITY_UNIT ? dropProgress[g] % TetrisImpl.GRAVITY_UNIT:0;
+		}
+		
+		if(isLocationBlocked(g, x[g], y[g] - 1, r[g])) {
+			if((flags[g] & LOCKING) == 0) {
+				flags[g] |= LOCKING;
+				lastLockFrame[g] = f;
+			}
+		} else flags[g] &= ~LOCKING;
+		
+		if((flags[g] & LOCKING) != 0) {
+			if(f - lastLockFrame[g] > 30) {
+				lock(g);
+				
+				return;
+			}
+		}
+		
+		if((input & TetrisSimulatorImpl.HARDDROP) != 0) {
+			y[g] -= getDropDistance(g);
+			harddropScore[g] += 18 - y[g];
+			
+			lock(g);
+			
+			return;
+		}
+		
+		if((input & TetrisSimulatorImpl.SOFTDROP) != 0 && f - lastSoftdropInput[g] > 1) {
+			lastSoftdropInput[g] = f;
+			
+			if(!isLocationBlocked(g, x[g], y[g] - 1, r[g])) {
+				y[g] --;
+			}
+		}
+	}
+	
+	private boolean collisionRotation(int g, int nr) {
+		int id = current[g];
+		if(id == Tetromino.O.id) return false;
+		
+		int cr = r[g];
+		boolean flip = ((cr + 1) & 3) != nr;
+		
+		int offset = nr * 10;
+		
+		if(!flip)
+			offset = cr * 10;
+		
+		int[] kicks = id == Tetromino.I.id ? TetrisImpl.WallKickData_1:TetrisImpl.WallKickData_0;
+		for(int i = 0; i < 5; i++) {
+			int xn = kicks[offset + i * 2    ];
+			int yn = kicks[offset + i * 2 + 1];
+			
+			if(!flip) {
+				xn *= -1;
+				yn *= -1;
+			}
+			
+			if(!isLocationBlocked(g, x[g] + xn, y[g] + yn, nr)) {
+				x[g] += xn;
+				y[g] += yn;
+				r[g]  = nr;
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns <code>true</code> if the current tetromino of the game <code>g</code> would
+	 * overlap a cell, a wall or the floor at the specified location.
+	 *
+	 * @see Tetris#isLocationBlocked(int, int, int)
+	 */
+	public boolean isLocationBlocked(int g, int x, int y, int r) {
+		// Outside of these bounds a cell is always outside of the walls or the padding
+		if(x < -3 || x > WIDTH - 1 || y < -PAD || y > HEIGHT + PAD - 4) return true;
+		
+		long lanes = (long)LANES.get(board, (g * STRIDE + y + PAD) << 1);
+		long piece = PIECE_LANES[current[g] * 4 + r] << (x + 3);
+		
+		return (piece & lanes) != 0;
+	}
+	
+	private int getDropDistance(int g) {
+		int a = y[g];
+		for(; a > -4; a--) {
+			if(isLocationBlocked(g, x[g], a - 1, r[g])) break;
+		}
+		
+		return y[g] - a;
+	}
+	
+	private void lock(int g) {
+		int id = current[g];
+		int px = x[g];
+		int py = y[g];
+		int pr = r[g];
+		
+		// The cells outside of the playfield land on the walls or the padding which are already filled
+		int offset = (g * STRIDE + py + PAD) << 1;
+		long lanes = (long)LANES.get(board, offset);
+		LANES.set(board, offset, lanes | (PIECE_LANES[id * 4 + pr] << (px + 3)));
+		
+		pieces[g] ++;
+		
+		calculateScore(g);
+		
+		current[g] = next[g];
+		next[g] = (byte)randomizers[g].next().id;
+		
+		respawn(g);
+		
+		lastSpawnFrame[g] = frame[g];
+		flags[g] &= ~(SWITCHED | LOCKING);
+		
+		if(isLocationBlocked(g, x[g], y[g] - 1, r[g])) {
+			if(autoReset) reset(g);
+			else flags[g] |= GAME_OVER;
+		} else y[g]--;
+	}
+	
+	private void calculateScore(int g) {
+		boolean tspin = false;
+		if(current[g] == Tetromino.T.id) {
+			if(isLocationBlocked(g, x[g] - 1, y[g], r[g])
+			&& isLocationBlocked(g, x[g] + 1, y[g], r[g])
+			&& isLocationBlocked(g, x[g], y[g] + 1, r[g])) tspin = true;
+		}
+		
+		int cleared = clearRows(g);
+		lines[g] += cleared;
+		
+		if(cleared == 1) levelProgress[g] += 1;
+		else if(cleared == 2) levelProgress[g] += 3;
+		else if(cleared == 3) levelProgress[g] += 5;
+		else if(cleared == 4) levelProgress[g] += 8;
+		
+		if(levelProgress[g] > (5 * (level[g] + 1))) {
+			levelProgress[g] -= 5 * (level[g]);
+			
+			level[g] ++;
+		}
+		
+		if(softdropScore[g] > 20) softdropScore[g] = 20;
+		if(harddropScore[g] > 20) harddropScore[g] = 20;
+		if(harddropScore[g] < 0) harddropScore[g] = 0;
+		
+		score[g] += softdropScore[g];
+		score[g] += harddropScore[g] * 2;
+		
+		int mul = level[g] + 1;
+		if(tspin) {
+			if(cleared == 0) score[g] += 100 * mul;
+			if(cleared == 1) score[g] += 400 * mul;
+			if(cleared == 2) score[g] += 1200 * mul;
+			if(cleared == 3) score[g] += 1600 * mul;
+		} else {
+			if(cleared == 2) score[g] += 300 * mul;
+			if(cleared == 3) score[g] += 500 * mul;
+			if(cleared == 4) score[g] += 800 * mul;
+		}
+		
+		softdropScore[g] = 0;
+		harddropScore[g] = 0;
+	}
+	
+	/**
+	 * Removes the full rows of the game <code>g</code>. Only the four rows under the
+	 * tetromino that was just locked can be full.
+	 */
+	private int clearRows(int g) {
+		int py = y[g];
+		long lanes = (long)LANES.get(board, (g * STRIDE + py + PAD) << 1);
+		
+		// A lane is full when all of its bits are set, this finds them all at once
+		long empty = ~lanes;
+		long full = ~(((empty & 0x7fff7fff7fff7fffL) + 0x7fff7fff7fff7fffL) | empty) & 0x8000800080008000L;
+		if(full == 0) return 0;
+		
+		int low = HEIGHT;
+		for(int i = 0; i < 4; i++) {
+			int row = py + i;
+			if(row >= 0 && row < HEIGHT && (full & (0x8000L << (i << 4))) != 0) {
+				low = Math.min(low, row);
+			}
+		}
+		
+		if(low == HEIGHT) return 0;
+		
+		int write = low;
+		for(int read = low; read < HEIGHT; read++) {
+			int lane = getLane(g, read);
+			if(lane == FULL_LANE) continue;
+			
+			if(write != read) setLane(g, write, lane);
+			write ++;
+		}
+		
+		int offset = HEIGHT - write;
+		for(; write < HEIGHT; write++) {
+			setLane(g, write, EMPTY_LANE);
+		}
+		
+		lines[g] += offset;
+		return offset;
+	}
+	
+	private void respawn(int g) {
+		y[g] = 18;
+		
+		if(current[g] == Tetromino.O.id || current[g] == Tetromino.I.id) x[g] = 3;
+		else x[g] = 2;
+		
+		r[g] = 0;
+	}
+	
+	/**
+	 * Starts the game <code>g</code> over with an empty playfield.
+	 *
+	 * @see TetrisSimulator#reset()
+	 */
+	public void reset(int g) {
+		lastMovementInput[g] = 0;
+		lastSoftdropInput[g] = 0;
+		lastSpawnFrame[g] = 0;
+		lastLockFrame[g] = 0;
+		dropProgress[g] = 0;
+		harddropScore[g] = 0;
+		softdropScore[g] = 0;
+		levelProgress[g] = 0;
+		frame[g] = 0;
+		flags[g] = 0;
+		
+		for(int i = 0; i < HEIGHT; i++) {
+			setLane(g, i, EMPTY_LANE);
+		}
+		
+		level[g] = 0;
+		lines[g] = 0;
+		score[g] = 0;
+		
+		randomizers[g].clear();
+		
+		current[g] = (byte)randomizers[g].next().id;
+		next[g] = (byte)randomizers[g].next().id;
+		holding[g] = -1;
+		
+		respawn(g);
+	}
+	
+	private int getLane(int g, int row) {
+		int i = (g * STRIDE + row + PAD) << 1;
+		return (board[i] & 0xff) | ((board[i + 1] & 0xff) << 8);
+	}
+	
+	private void setLane(int g, int row, int lane) {
+		int i = (g * STRIDE + row + PAD) << 1;
+		board[i] = (byte)lane;
+		board[i + 1] = (byte)(lane >>> 8);
+	}
+	
+	public int getGames() {
+		return games;
+	}
+	
+	/**
+	 * Returns the filled cells of the row <code>y</code> of the game <code>g</code>.
+	 *
+	 * @see Tetris#getRowMask(int)
+	 */
+	public int getRowMask(int g, int y) {
+		return (getLane(g, y) >>> 3) & FULL_ROW;
+	}
+	
+	public int getLevel(int g) {
+		return level[g];
+	}
+	
+	public int getLines(int g) {
+		return lines[g];
+	}
+	
+	public int getScore(int g) {
+		return score[g];
+	}
+	
+	public int getLevelProgress(int g) {
+		return levelProgress[g];
+	}
+	
+	public int getX(int g) {
+		return x[g];
+	}
+	
+	public int getY(int g) {
+		return y[g];
+	}
+	
+	public int getRotation(int g) {
+		return r[g];
+	}
+	
+	public Tetromino getCurrentTetromino(int g) {
+		return PIECES[current[g]];
+	}
+	
+	public Tetromino getNextTetromino(int g) {
+		return PIECES[next[g]];
+	}
+	
+	public Tetromino getHoldTetromino(int g) {
+		return holding[g] < 0 ? null:PIECES[holding[g]];
+	}
+	
+	public long getFrame(int g) {
+		return frame[g];
+	}
+	
+	public long getPieces(int g) {
+		return pieces[g];
+	}
+	
+	public boolean isGameOver(int g) {
+		return (flags[g] & GAME_OVER) != 0;
+	}
+	
+	/**
+	 * Returns <code>true</code> if the game <code>g</code> is in exactly the same state as <code>tetris</code>,
+	 * including the playfield, the tetrominos, the scores and all timers. The state of <code>tetris</code>
+	 * is saved to <code>state</code> to compare it.
+	 */
+	public boolean matches(int g, TetrisSimulator tetris, TetrisState state) {
+		tetris.saveState(state);
+		
+		for(int i = 0; i < HEIGHT; i++) {
+			if(getRowMask(g, i) != state.rows[i]) return false;
+		}
+		
+		return getCurrentTetromino(g) == state.current
+			&& getNextTetromino(g) == state.next
+			&& getHoldTetromino(g) == state.holding
+			&& x[g] == state.x && y[g] == state.y && r[g] == state.r
+			&& level[g] == state.level
+			&& lines[g] == state.lines
+			&& score[g] == state.score
+			&& levelProgress[g] == state.levelProgress
+			&& dropProgress[g] == state.dropProgress
+			&& softdropScore[g] == state.softdropScore
+			&& harddropScore[g] == state.harddropScore
+			&& frame[g] == state.frame
+			&& pieces[g] == state.pieces
+			&& lastMovementInput[g] == state.lastMovementInput
+			&& lastSoftdropInput[g] == state.lastSoftdropInput
+			&& lastSpawnFrame[g] == state.lastSpawnFrame
+			&& lastLockFrame[g] == state.lastLockFrame
+			&& isGameOver(g) == state.gameOver
+			&& ((flags[g] & FAST_MOVE) != 0) == state.fastMove
+			&& ((flags[g] & SWITCHED) != 0) == state.switched
+			&& ((flags[g] & ROTATED) != 0) == state.rotated
+			&& ((flags[g] & LOCKING) != 0) == state.locking
+			&& randomizers[g].hash() == tetris.getRandomizer().hash();
+	}
+	
+	/**
+	 * Plays the same games with random input on both this class and {@link TetrisSimulator} objects
+	 * and measures how fast both are. Both are warmed up first and then timed for the same amount
+	 * of frames in turns. The games are checked to stay the same by <code>TetrisSimulatorArrayTest</code>.
+	 */
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]):2000;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]):5000;
+		
+		long[] seeds = new long[count];
+		for(int g = 0; g < count; g++) {
+			seeds[g] = g;
+		}
+		
+		int[][] inputs = createInputs(count, frames, 0);
+		TetrisSimulator[] simulators = createSimulators(seeds);
+		TetrisSimulatorArray array = new TetrisSimulatorArray(seeds);
+		
+		long simulatorTime = 0;
+		long arrayTime = 0;
+		for(int round = 0; round < 2; round++) {
+			long start = System.nanoTime();
+			for(int f = 0; f < frames; f++) {
+				int[] frame = inputs[f];
+				for(int g = 0; g < count; g++) {
+					simulators[g].tick(frame[g]);
+				}
+			}
+			
+			long mid = System.nanoTime();
+			for(int f = 0; f < frames; f++) {
+				array.tick(inputs[f]);
+			}
+			
+			// The first round is only used to warm up
+			if(round == 1) {
+				simulatorTime = mid - start;
+				arrayTime = System.nanoTime() - mid;
+			}
+		}
+		
+		long ticks = (long)count * frames;
+		System.out.printf("TetrisSimulator      %.0f ticks/s%n", ticks / (simulatorTime / 1e9));
+		System.out.printf("TetrisSimulatorArray %.0f ticks/s%n", ticks / (arrayTime / 1e9));
+	}
+	
+	/**
+	 * Returns random input for <code>count</code> games over <code>frames</code> frames, where
+	 * every game holds its keys for a random amount of frames.
+	 */
+	static int[][] createInputs(int count, int frames, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		int[] input = new int[count];
+		int[][] inputs = new int[frames][];
+		for(int f = 0; f < frames; f++) {
+			for(int g = 0; g < count; g++) {
+				if(random.nextInt(8) == 0) input[g] = random.nextInt(256);
+			}
+			inputs[f] = input.clone();
+		}
+		
+		return inputs;
+	}
+	
+	static TetrisSimulator[] createSimulators(long[] seeds) {
+		TetrisSimulator[] simulators = new TetrisSimulator[seeds.length];
+		for(int g = 0; g < seeds.length; g++) {
+			simulators[g] = new TetrisSimulator(seeds[g]);
+		}
+		
+		return simulators;
+	}
+}
@@ -1,80 +1,202 @@
-package main.tetris.core;
-
-public interface TetrisSimulatorImpl {
-	/**
-	 * Every time this method gets called it increments the current {@link TetrisSimulator#frame frame}.
-	 * 
-	 * <p>
-	 * 
-	 * This method updates the game with the specified parameters and updates the game accordingly. 
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public void tick(boolean left,
-					 boolean right,
-					 boolean hold,
-					 boolean rotateleft,
-					 boolean rotateright,
-					 boolean rotateflip,
-					 boolean softdrop,
-					 boolean harddrop);
-	
-	/**
-	 * This method updates the postition of the {@link Tetris#current current} tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public void tickMovement(boolean left, boolean right);
-	
-	/**
-	 * This method updates the rotation of the {@link Tetris#current current} tetromino.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public void tickRotation(boolean rotateleft, boolean rotateright, @Deprecated boolean rotateflip);
-	
-	/**
-	 * This method updates the {@link Tetris#y} position depending on the {@link Tetris#level} speed.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public void tickGravity(boolean softdrop, boolean harddrop);
-	
-	/**
-	 * This method will write the {@link Tetris#current current} tetromino to the
-	 * {@link Tetris#board playfield}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	void writeToArray();
-	
-	/**
-	 * This method wall add to the score depending on the movement, softdrop,
-	 * harddrop or rotation of the {@link Tetris#current current} tetromino
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	void calculateScore();
-	
-	/**
-	 * This method will return the current {@link TetrisSimulator#frame frame}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public long getFrame();
-	
-	/**
-	 * This method will return a value from 0 to 30 meaning the amount of {@link TetrisSimulator#frame frames}
-	 * that has gone since the {@link Tetris#current current} tetromino touched the ground.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public long getLockingIndex();
-	
-	/**
-	 * This will return the current amount of {@link Tetris#lines lines}.
-	 * 
-	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
-	 */
-	public int getLevelProgress();
-}
+package main.tetris.core;
+
+public interface TetrisSimulatorImpl {
+	/**
+	 * These are the bits used when the input of a frame is packed into a single byte.
+	 * 
+	 * @see #tick(int)
+	 */
+	static final int LEFT         = 1;
+	static final int RIGHT        = 2;
+	static final int HOLD         = 4;
+	static final int ROTATE_LEFT  = 8;
+	static final int ROTATE_RIGHT = 16;
+	static final int ROTATE_FLIP  = 32;
+	static final int SOFTDROP     = 64;
+	static final int HARDDROP     = 128;
+	
+	/**
+	 * This is returned by {@link #place(int, int, boolean) place} when the tetromino was placed
+	 * but the next one couldn't spawn and the game was reset by {@link TetrisSimulator#autoReset autoReset}.
+	 */
+	static final int RESET = -2;
+	
+	/**
+	 * Every time this method gets called it increments the current {@link TetrisSimulator#frame frame}.
+	 * 
+	 * <p>
+	 * 
+	 * This method updates the game with the specified parameters and updates the game accordingly. 
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void tick(boolean left,
+					 boolean right,
+					 boolean hold,
+					 boolean rotateleft,
+					 boolean rotateright,
+					 boolean rotateflip,
+					 boolean softdrop,
+					 boolean harddrop);
+	
+	/**
+	 * This method does the same thing as {@link #tick(boolean, boolean, boolean, boolean, boolean, boolean, boolean, boolean) tick}
+	 * but takes all the inputs packed into a single byte using the bits {@link #LEFT}, {@link #RIGHT},
+	 * {@link #HOLD}, {@link #ROTATE_LEFT}, {@link #ROTATE_RIGHT}, {@link #ROTATE_FLIP}, {@link #SOFTDROP}
+	 * and {@link #HARDDROP}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void tick(int input);
+	
+	/**
+	 * This method does the same thing as calling {@link #tick(int) tick} with the same <code>input</code>
+	 * <code>frames</code> times, but only the frames where something can happen are simulated. The frames
+	 * in between, where the game is waiting for gravity, the lock delay, the spawn delay or DAS and ARR,
+	 * are skipped at once. Returns the amount of frames that were simulated.
+	 * 
+	 * @see #getNextEvent(int)
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public long advance(int input, long frames);
+	
+	/**
+	 * This method returns the first {@link TetrisSimulator#frame frame} after the current one where
+	 * calling {@link #tick(int) tick} with <code>input</code> does more than increment the frame and
+	 * the gravity. This is the next time the tetromino moves, rotates, falls, starts or stops locking,
+	 * gets locked or is held, or the first frame after a key was released. Returns {@link Long#MAX_VALUE}
+	 * if the game is over.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public long getNextEvent(int input);
+	
+	/**
+	 * This method swaps the {@link Tetris#current current} tetromino with the {@link Tetris#holding holding}
+	 * one, or with the {@link Tetris#next next} one if nothing is held, and respawns it. Returns <code>false</code>
+	 * if the current tetromino was already swapped since it spawned.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public boolean hold();
+	
+	/**
+	 * This method places the {@link Tetris#current current} tetromino directly without simulating
+	 * any frames. The tetromino is moved to column <code>x</code> with the rotation <code>r</code> on
+	 * the row it is on, or on the spawn row if <code>hold</code> is used first, and dropped straight down.
+	 * 
+	 * <p>
+	 * 
+	 * The tetromino is locked, scored and the full rows are cleared exactly like a {@link #HARDDROP harddrop}
+	 * in {@link #tick(int)} would do. Whether a player could move the tetromino there is not checked.
+	 * Returns the amount of cleared rows or <code>-1</code> if the tetromino doesn't fit at the
+	 * location, the game is over or the tetromino has already been held. If the game topped out and
+	 * was reset {@link #RESET} is returned instead, because the cleared rows belong to the old game.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int place(int x, int r, boolean hold);
+	
+	/**
+	 * This method does the same thing as {@link #place(int, int, boolean) place} but locks the
+	 * tetromino at the row <code>y</code>. This is used for placements found by the {@link TetrisMoveGenerator}
+	 * that can't be reached by dropping straight down, like T-spins. The tetromino must be resting on
+	 * the stack or the floor at that row, otherwise <code>-1</code> is returned.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int place(int x, int y, int r, boolean hold);
+	
+	/**
+	 * This method updates the postition of the {@link Tetris#current current} tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void tickMovement(boolean left, boolean right);
+	
+	/**
+	 * This method updates the rotation of the {@link Tetris#current current} tetromino.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void tickRotation(boolean rotateleft, boolean rotateright, @Deprecated boolean rotateflip);
+	
+	/**
+	 * This method updates the {@link Tetris#y} position depending on the {@link Tetris#level} speed.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void tickGravity(boolean softdrop, boolean harddrop);
+	
+	/**
+	 * This method will write the {@link Tetris#current current} tetromino to the
+	 * {@link Tetris#board playfield}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	void writeToArray();
+	
+	/**
+	 * This method wall add to the score depending on the movement, softdrop,
+	 * harddrop or rotation of the {@link Tetris#current current} tetromino
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	void calculateScore();
+	
+	/**
+	 * This method copies the complete state of the game into <code>state</code>. This
+	 * includes the playfield, the tetrominos, all timers and the state of the
+	 * {@link Tetris#randomizer randomizer}. No memory is allocated.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void saveState(TetrisState state);
+	
+	/**
+	 * This method restores a state saved with {@link #saveState}. The state must come
+	 * from a game using the same kind of {@link Tetris#randomizer randomizer}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public void loadState(TetrisState state);
+	
+	/**
+	 * This method will return the current {@link TetrisSimulator#frame frame}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public long getFrame();
+	
+	/**
+	 * This method will return a value from 0 to 30 meaning the amount of {@link TetrisSimulator#frame frames}
+	 * that has gone since the {@link Tetris#current current} tetromino touched the ground.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public long getLockingIndex();
+	
+	/**
+	 * This method will return <code>true</code> if the last tetromino could not spawn and
+	 * the game stopped. This only happens when {@link TetrisSimulator#autoReset autoReset}
+	 * is <code>false</code>, otherwise the game will reset itself.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public boolean isGameOver();
+	
+	/**
+	 * This will return the current amount of {@link Tetris#lines lines}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public int getLevelProgress();
+	
+	/**
+	 * This method will return the amount of tetrominos locked since the game was created,
+	 * including the games before the last {@link TetrisSimulator#reset reset}.
+	 * 
+	 * @see <a href="https://tetris.com/">https://tetris.com/</a>
+	 */
+	public long getPieces();
+}
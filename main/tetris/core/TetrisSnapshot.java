@@ -0,0 +1,158 @@
+package main.tetris.core;
+
+import java.util.Arrays;
+
+/**
+ * This class is an immutable copy of everything needed to draw a {@link TetrisSimulator} game.
+ * 
+ * <p>
+ * 
+ * A snapshot can be created on the simulation thread and handed to another thread without
+ * any locks. The playfield is only copied when the {@link TetrisImpl#getVersion() version}
+ * has changed since the previous snapshot, otherwise the arrays of the previous one are shared.
+ */
+public final class TetrisSnapshot {
+	private final int width;
+	private final int height;
+	private final int[] board;
+	private final int[] rows;
+	private final long version;
+	
+	private final Tetromino current;
+	private final Tetromino holding;
+	private final Tetromino next;
+	private final int x;
+	private final int y;
+	private final int r;
+	private final int ghostY;
+	
+	private final long frame;
+	private final int level;
+	private final int lines;
+	private final int score;
+	private final int combo;
+	private final int levelProgress;
+	private final long lockingIndex;
+	
+	private TetrisSnapshot(TetrisSimulator tetris, TetrisSnapshot previous) {
+		width = tetris.getWidth();
+		height = tetris.getHeight();
+		version = tetris.getVersion();
+		
+		if(previous != null && previous.version == version) {
+			board = previous.board;
+			rows = previous.rows;
+		} else {
+			board = tetris.getPlayfield();
+			rows = Arrays.copyOf(tetris.rows, height);
+		}
+		
+		current = tetris.getCurrentTetromino();
+		holding = tetris.getHoldTetromino();
+		next = tetris.getNextTetromino();
+		x = tetris.getX();
+		y = tetris.getY();
+		r = tetris.getRotation();
+		
+		ghostY = y - tetris.getDropDistance();
+		
+		frame = tetris.getFrame();
+		level = tetris.getLevel();
+		lines = tetris.getLines();
+		score = tetris.getScore();
+		combo = tetris.getCombo();
+		levelProgress = tetris.getLevelProgress();
+		lockingIndex = tetris.getLockingIndex();
+	}
+	
+	/**
+	 * Creates a snapshot of the current state of <code>tetris</code>. If <code>previous</code>
+	 * is not <code>null</code> and the playfield has not changed its arrays will be reused.
+	 * 
+	 * <p>
+	 * 
+	 * This method must be called from the thread that ticks the game.
+	 */
+	public static TetrisSnapshot of(TetrisSimulator tetris, TetrisSnapshot previous) {
+		return new TetrisSnapshot(tetris, previous);
+	}
+	
+	public int getWidth() {
+		return width;
+	}
+	
+	public int getHeight() {
+		return height;
+	}
+	
+	public int getCell(int x, int y) {
+		return board[x + y * width];
+	}
+	
+	public int getRowMask(int y) {
+		return rows[y];
+	}
+	
+	public long getVersion() {
+		return version;
+	}
+	
+	public Tetromino getCurrentTetromino() {
+		return current;
+	}
+	
+	public Tetromino getHoldTetromino() {
+		return holding;
+	}
+	
+	public Tetromino getNextTetromino() {
+		return next;
+	}
+	
+	public int getX() {
+		return x;
+	}
+	
+	public int getY() {
+		return y;
+	}
+	
+	public int getRotation() {
+		return r;
+	}
+	
+	/**
+	 * Returns the y position the current tetromino would land on if it was dropped.
+	 */
+	public int getGhostY() {
+		return ghostY;
+	}
+	
+	public long getFrame() {
+		return frame;
+	}
+	
+	public int getLevel() {
+		return level;
+	}
+	
+	public int getLines() {
+		return lines;
+	}
+	
+	public int getScore() {
+		return score;
+	}
+	
+	public int getCombo() {
+		return combo;
+	}
+	
+	public int getLevelProgress() {
+		return levelProgress;
+	}
+	
+	public long getLockingIndex() {
+		return lockingIndex;
+	}
+}
@@ -0,0 +1,85 @@
+package main.tetris.core;
+
+/**
+ * This class holds a complete copy of the state of a {@link TetrisSimulator} game.
+ * 
+ * <p>
+ * 
+ * A state is created once and can then be used any amount of times with
+ * {@link TetrisSimulatorImpl#saveState saveState} and {@link TetrisSimulatorImpl#loadState loadState}
+ * without allocating any memory. This makes it cheap to try a move and undo it.
+ */
+public class TetrisState {
+	final int[] board;
+	final int[] rows;
+	final int[] heights;
+	final int[] filled;
+	
+	/**
+	 * This array contains the state of the {@link TetrisRandomizer randomizer}.
+	 */
+	final long[] random = new long[TetrisRandomizer.STATE_SIZE];
+	
+	long version;
+	long boardHash;
+	int aggregateHeight;
+	int filledCells;
+	int rowTransitions;
+	int DAS;
+	int ARR;
+	int ARE;
+	int level;
+	int lines;
+	int score;
+	int combo;
+	Tetromino current;
+	Tetromino holding;
+	Tetromino next;
+	int r;
+	int x;
+	int y;
+	
+	long frame;
+	long lastRotationInput;
+	long lastMovementInput;
+	long lastSoftdropInput;
+	long lastSpawnFrame;
+	long lastLockFrame;
+	int dropProgress;
+	int levelProgress;
+	long pieces;
+	int softdropScore;
+	int harddropScore;
+	boolean autoReset;
+	boolean gameOver;
+	boolean fastMove;
+	boolean switched;
+	boolean rotated;
+	boolean locking;
+	
+	/**
+	 * Creates a state that can hold a game with the same playfield size as <code>tetris</code>.
+	 */
+	public TetrisState(TetrisImpl tetris) {
+		board = new int[tetris.getWidth() * tetris.getHeight()];
+		rows = new int[tetris.getHeight()];
+		heights = new int[tetris.getWidth()];
+		filled = new int[tetris.getWidth()];
+	}
+	
+	public long getFrame() {
+		return frame;
+	}
+	
+	public int getScore() {
+		return score;
+	}
+	
+	public int getLines() {
+		return lines;
+	}
+	
+	public int getLevel() {
+		return level;
+	}
+}
@@ -0,0 +1,125 @@
+package main.tetris.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This class stores a large amount of games outside of the Java heap. Every game is a
+ * record of {@link #RECORD_SIZE} bytes in a direct {@link ByteBuffer}, so the heap only
+ * holds one buffer object for every {@link #CHUNK_SIZE} games no matter how many games exist.
+ *
+ * <p>
+ *
+ * A record holds the state needed to play a game one placement at a time:
+ *
+ * <ul>
+ *   <li>All 40 rows packed as 10 bit masks, six rows in each long.</li>
+ *   <li>The state of the {@link TetrisRandomizer.Bag 7-bag}.</li>
+ *   <li>The score, lines, combo, level and level progress and the amount of placed pieces.</li>
+ *   <li>The current, next and held tetromino with its position and rotation.</li>
+ *   <li>The {@link TetrisImpl#getVersion() version} of the playfield.</li>
+ * </ul>
+ *
+ * The colors of the cells and the frame timers of {@link TetrisSimulator} are not stored.
+ * The records are read and changed through a {@link TetrisRecord}.
+ *
+ * @see <a href="https://tetris.com/">https://tetris.com/</a>
+ */
+public class TetrisStore {
+	/**
+	 * This is the amount of bytes used by every game.
+	 */
+	public static final int RECORD_SIZE = 112;
+	
+	/**
+	 * This is the amount of games in every buffer.
+	 */
+	public static final int CHUNK_SIZE = 1 << 20;
+	
+	static final int ROWS           = 0;
+	static final int RANDOM         = 56;
+	static final int BAG            = 64;
+	static final int SCORE          = 68;
+	static final int LINES          = 72;
+	static final int LEVEL          = 76;
+	static final int LEVEL_PROGRESS = 80;
+	static final int PIECES         = 84;
+	static final int CURRENT        = 88;
+	static final int NEXT           = 89;
+	static final int HOLDING        = 90;
+	static final int X              = 91;
+	static final int Y              = 92;
+	static final int R              = 93;
+	static final int FLAGS          = 94;
+	static final int VERSION        = 96;
+	static final int COMBO          = 104;
+	
+	/**
+	 * This is the amount of rows packed in each long.
+	 */
+	static final int ROWS_PER_LONG = 6;
+	
+	private final ByteBuffer[] chunks;
+	private final long games;
+	
+	/**
+	 * Creates a store for the specified amount of games. All records start empty and
+	 * a game has to be {@link TetrisRecord#reset reset} before it is played.
+	 */
+	public TetrisStore(long games) {
+		if(games < 0) throw new IllegalArgumentException("The amount of games can't be negative");
+		this.games = games;
+		
+		chunks = new ByteBuffer[(int)((games + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+		for(int i = 0; i < chunks.length; i++) {
+			long size = Math.min(games - (long)i * CHUNK_SIZE, CHUNK_SIZE);
+			chunks[i] = ByteBuffer.allocateDirect((int)size * RECORD_SIZE).order(ByteOrder.nativeOrder());
+		}
+	}
+	
+	/**
+	 * Returns the buffer that holds the record of the game <code>game</code>.
+	 */
+	ByteBuffer getChunk(long game) {
+		if(game < 0 || game >= games) throw new IndexOutOfBoundsException("Game " + game + " is not in the store");
+		
+		return chunks[(int)(game / CHUNK_SIZE)];
+	}
+	
+	/**
+	 * Returns the position of the record of the game <code>game</code> in its {@link #getChunk chunk}.
+	 */
+	static int getOffset(long game) {
+		return (int)(game % CHUNK_SIZE) * RECORD_SIZE;
+	}
+	
+	/**
+	 * Copies the record of the game <code>from</code> to the game <code>to</code>. The version
+	 * of <code>to</code> is moved past both versions so a cache of either game sees the change.
+	 */
+	public void copy(long from, long to) {
+		ByteBuffer src = getChunk(from);
+		ByteBuffer dst = getChunk(to);
+		int srcOffset = getOffset(from);
+		int dstOffset = getOffset(to);
+		
+		long version = Math.max(src.getLong(srcOffset + VERSION), dst.getLong(dstOffset + VERSION)) + 1;
+		
+		for(int i = 0; i < RECORD_SIZE; i += 8) {
+			dst.putLong(dstOffset + i, src.getLong(srcOffset + i));
+		}
+		
+		dst.putLong(dstOffset + VERSION, version);
+	}
+	
+	public long getGames() {
+		return games;
+	}
+	
+	/**
+	 * Returns the amount of bytes allocated outside of the heap.
+	 */
+	public long getBytes() {
+		return games * RECORD_SIZE;
+	}
+}
@@ -0,0 +1,202 @@
+package main.tetris.core;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is a fixed size hash table that remembers the evaluation and best placement of
+ * positions that has already been searched. Positions are identified by a 64-bit key
+ * like the {@link TetrisImpl#getStateHash() state hash}.
+ * 
+ * <p>
+ * 
+ * Every entry is stored in two <code>long</code> arrays, the packed data and the key xor:ed
+ * with the data. A reader only accepts an entry if both halves belong together, so the table can be
+ * shared by many search threads without any locks. A torn write is just seen as a miss.
+ * 
+ * <p>
+ * 
+ * The table is split into buckets of two entries. The first entry keeps the deepest search of the
+ * current {@link #newSearch() age} and the second entry is always replaced.
+ * 
+ * @see TetrisBot#TetrisBot(TetrisImpl, TetrisTranspositionTable)
+ */
+public class TetrisTranspositionTable {
+	private static final long VALID = 1L << 63;
+	private static final int ENTRY_BYTES = 16;
+	
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	
+	/**
+	 * The age is changed by {@link #newSearch()} while search threads are storing entries.
+	 */
+	private volatile int age;
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder stores = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * Creates a table that holds <code>capacity</code> entries. The capacity is
+	 * rounded down to a power of two and is at least two.
+	 */
+	public TetrisTranspositionTable(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity));
+		
+		keys = new long[size];
+		data = new long[size];
+		mask = size - 1;
+	}
+	
+	/**
+	 * Creates a table that uses about <code>megabytes</code> of memory.
+	 */
+	public static TetrisTranspositionTable ofMegabytes(int megabytes) {
+		long entries = (megabytes * 1024L * 1024L) / ENTRY_BYTES;
+		return new TetrisTranspositionTable((int)Math.min(entries, 1 << 30));
+	}
+	
+	/**
+	 * Returns the entry stored for <code>key</code> or <code>0</code> if the table doesn't contain it.
+	 * The values of an entry are read with {@link #getScore}, {@link #getX}, {@link #getY},
+	 * {@link #getRotation}, {@link #isHold} and {@link #getDepth}.
+	 */
+	public long probe(long key) {
+		int index = (int)key & mask & ~1;
+		
+		for(int i = index; i < index + 2; i++) {
+			long d = data[i];
+			if((keys[i] ^ d) == key && d != 0) {
+				hits.increment();
+				return d;
+			}
+		}
+		
+		misses.increment();
+		return 0;
+	}
+	
+	/**
+	 * Stores the <code>score</code> and best placement of the position <code>key</code>
+	 * that was searched <code>depth</code> pieces deep.
+	 */
+	public void store(long key, int score, int x, int y, int r, boolean hold, int depth) {
+		int a = age;
+		long entry = (score & 0xffffffffL)
+			| (long)((x + 3) & 31) << 32
+			| (long)((y + 3) & 63) << 37
+			| (long)(r & 3) << 43
+			| (hold ? 1L:0L) << 45
+			| (long)(depth & 255) << 46
+			| (long)(a & 255) << 54
+			| VALID;
+		
+		int index = (int)key & mask & ~1;
+		int slot = index + 1;
+		
+		long first = data[index];
+		if((keys[index] ^ first) == key || first == 0) {
+			slot = index;
+		} else if((keys[index + 1] ^ data[index + 1]) != key) {
+			// Replace the first entry if it is old or from a shallower search
+			if(getAge(first) != (a & 255) || getDepth(first) <= depth) {
+				slot = index;
+			}
+			
+			if(data[slot] != 0) evictions.increment();
+		}
+		
+		data[slot] = entry;
+		keys[slot] = key ^ entry;
+		stores.increment();
+	}
+	
+	/**
+	 * Starts a new search. Entries from older searches are replaced before deeper entries
+	 * of the current search.
+	 */
+	public void newSearch() {
+		age = (age + 1) & 255;
+	}
+	
+	/**
+	 * Removes all entries and resets all counters.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, 0);
+		hits.reset();
+		misses.reset();
+		stores.reset();
+		evictions.reset();
+	}
+	
+	public static int getScore(long entry) {
+		return (int)entry;
+	}
+	
+	public static int getX(long entry) {
+		return (int)((entry >>> 32) & 31) - 3;
+	}
+	
+	public static int getY(long entry) {
+		return (int)((entry >>> 37) & 63) - 3;
+	}
+	
+	public static int getRotation(long entry) {
+		return (int)((entry >>> 43) & 3);
+	}
+	
+	public static boolean isHold(long entry) {
+		return ((entry >>> 45) & 1) != 0;
+	}
+	
+	public static int getDepth(long entry) {
+		return (int)((entry >>> 46) & 255);
+	}
+	
+	private static int getAge(long entry) {
+		return (int)((entry >>> 54) & 255);
+	}
+	
+	/**
+	 * Returns the amount of entries this table can hold.
+	 */
+	public int getCapacity() {
+		return keys.length;
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	public long getStores() {
+		return stores.sum();
+	}
+	
+	/**
+	 * Returns the amount of times a stored entry replaced an entry of another position.
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+	
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0:(h / (double)total);
+	}
+	
+	public String toString() {
+		return String.format("%d entries, %.1f%% hit rate, %d stores, %d evictions",
+			getCapacity(), getHitRate() * 100, getStores(), getEvictions()
+		);
+	}
+}
@@ -1,37 +1,139 @@
-package main.tetris.core;
-
-public enum Tetromino {
-	I(0, 0x0f00, 0x2222, 0x00f0, 0x4444),
-	J(1, 0x8e00, 0x6440, 0x0e20, 0x44c0),
-	L(2, 0x2e00, 0x4460, 0x0e80, 0xc440),
-	O(3, 0x6600, 0x6600, 0x6600, 0x6600),
-	S(4, 0x6c00, 0x4620, 0x06c0, 0x8c40),
-	T(5, 0x4e00, 0x4640, 0x0e40, 0x4c40),
-	Z(6, 0xc600, 0x2640, 0x0c60, 0x4c80);
-	
-	private int[] rot;
-	public final int id;
-	private Tetromino(int id, int r1, int r2, int r3, int r4) {
-		this.id = id;
-		
-		rot = new int[] { r1, r2, r3, r4 };
-	}
-	
-	public int getRotated(int rot) {
-		return this.rot[rot & 3];
-	}
-	
-	public static Tetromino get(int id) {
-		switch(id) {
-			case 0: return I;
-			case 1: return L;
-			case 2: return J;
-			case 3: return O;
-			case 4: return S;
-			case 5: return T;
-			case 6: return Z;
-		}
-		
-		return null;
-	}
-}
\ No newline at end of file
+package main.tetris.core;
+
+public enum Tetromino {
+	I(0, 0x0f00, 0x2222, 0x00f0, 0x4444),
+	J(1, 0x8e00, 0x6440, 0x0e20, 0x44c0),
+	L(2, 0x2e00, 0x4460, 0x0e80, 0xc440),
+	O(3, 0x6600, 0x6600, 0x6600, 0x6600),
+	S(4, 0x6c00, 0x4620, 0x06c0, 0x8c40),
+	T(5, 0x4e00, 0x4640, 0x0e40, 0x4c40),
+	Z(6, 0xc600, 0x2640, 0x0c60, 0x4c80);
+	
+	private int[] rot;
+	
+	/**
+	 * These tables are computed from {@link #rot} when the tetromino is created.
+	 * Every rotation has its own row of <code>4</code> entries.
+	 * 
+	 * <p>
+	 * 
+	 * <code>masks</code> contains the bits of each row inside the 4x4 box,
+	 * <code>bottom</code> contains the lowest filled cell of each column or <code>-1</code>,
+	 * <code>cells</code> contains the offset <code>x + y * 4</code> of each occupied cell and
+	 * <code>bounds</code> contains the <code>minX, minY, maxX, maxY</code> of the filled cells.
+	 */
+	private int[] masks;
+	private int[] bottom;
+	private int[] cells;
+	private int[] bounds;
+	
+	public final int id;
+	private Tetromino(int id, int r1, int r2, int r3, int r4) {
+		this.id = id;
+		
+		rot = new int[] { r1, r2, r3, r4 };
+		
+		masks  = new int[16];
+		bottom = new int[16];
+		cells  = new int[16];
+		bounds = new int[16];
+		
+		for(int r = 0; r < 4; r++) {
+			int shape = rot[r];
+			int count = 0;
+			int minX = 3, minY = 3, maxX = 0, maxY = 0;
+			
+			for(int i = 0; i < 4; i++) {
+				masks[r * 4 + i] = (shape >> (i << 2)) & 15;
+				bottom[r * 4 + i] = -1;
+			}
+			
+			for(int i = 0; i < 16; i++) {
+				if(((shape >> i) & 1) < 1)
+					continue;
+				
+				int xp = i &  3;
+				int yp = i >> 2;
+				
+				if(bottom[r * 4 + xp] < 0) bottom[r * 4 + xp] = yp;
+				cells[r * 4 + (count++)] = i;
+				
+				minX = Math.min(minX, xp);
+				minY = Math.min(minY, yp);
+				maxX = Math.max(maxX, xp);
+				maxY = Math.max(maxY, yp);
+			}
+			
+			bounds[r * 4    ] = minX;
+			bounds[r * 4 + 1] = minY;
+			bounds[r * 4 + 2] = maxX;
+			bounds[r * 4 + 3] = maxY;
+		}
+	}
+	
+	public int getRotated(int rot) {
+		return this.rot[rot & 3];
+	}
+	
+	/**
+	 * Returns the bits of the row <code>y</code> inside the 4x4 box of the rotation <code>rot</code>.
+	 * The bit <code>x</code> is set if the cell <code>(x, y)</code> is filled.
+	 */
+	public int getRowMask(int rot, int y) {
+		return masks[((rot & 3) << 2) + y];
+	}
+	
+	/**
+	 * Returns the lowest filled cell in the column <code>x</code> of the rotation <code>rot</code>
+	 * or <code>-1</code> if that column is empty.
+	 */
+	public int getBottom(int rot, int x) {
+		return bottom[((rot & 3) << 2) + x];
+	}
+	
+	/**
+	 * Returns the x offset of the cell with the index <code>i</code>. A tetromino
+	 * always has four cells so <code>i</code> goes from 0 to 3 (inclusive).
+	 */
+	public int getCellX(int rot, int i) {
+		return cells[((rot & 3) << 2) + i] & 3;
+	}
+	
+	/**
+	 * Returns the y offset of the cell with the index <code>i</code>. A tetromino
+	 * always has four cells so <code>i</code> goes from 0 to 3 (inclusive).
+	 */
+	public int getCellY(int rot, int i) {
+		return cells[((rot & 3) << 2) + i] >> 2;
+	}
+	
+	public int getMinX(int rot) {
+		return bounds[((rot & 3) << 2)];
+	}
+	
+	public int getMinY(int rot) {
+		return bounds[((rot & 3) << 2) + 1];
+	}
+	
+	public int getMaxX(int rot) {
+		return bounds[((rot & 3) << 2) + 2];
+	}
+	
+	public int getMaxY(int rot) {
+		return bounds[((rot & 3) << 2) + 3];
+	}
+	
+	public static Tetromino get(int id) {
+		switch(id) {
+			case 0: return I;
+			case 1: return L;
+			case 2: return J;
+			case 3: return O;
+			case 4: return S;
+			case 5: return T;
+			case 6: return Z;
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,61 @@
+package main.tetris.server;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of durations with a resolution of one microsecond up to {@link #MAX_MICROS}.
+ * Longer durations are counted in the last bucket. Recording a value never allocates
+ * any memory so it can be used on the tick thread.
+ */
+public class LatencyHistogram {
+	/**
+	 * This is the longest duration that is measured exactly, one second.
+	 */
+	public static final int MAX_MICROS = 1000000;
+	
+	private final long[] counts = new long[MAX_MICROS + 1];
+	private long total;
+	private long max;
+	
+	/**
+	 * Records a duration in nanoseconds.
+	 */
+	public synchronized void record(long nanos) {
+		long micros = Math.max(nanos / 1000, 0);
+		
+		counts[(int)Math.min(micros, MAX_MICROS)] ++;
+		total ++;
+		if(micros > max) max = micros;
+	}
+	
+	/**
+	 * Returns the duration in milliseconds that <code>percentile</code> percent of all
+	 * recorded durations are shorter than or equal to.
+	 */
+	public synchronized double getPercentile(double percentile) {
+		if(total == 0) return 0;
+		
+		long target = (long)Math.ceil(total * percentile / 100.0);
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if(seen >= target) return i / 1000.0;
+		}
+		
+		return max / 1000.0;
+	}
+	
+	public synchronized double getMax() {
+		return max / 1000.0;
+	}
+	
+	public synchronized long getCount() {
+		return total;
+	}
+	
+	public synchronized void reset() {
+		Arrays.fill(counts, 0);
+		total = 0;
+		max = 0;
+	}
+}
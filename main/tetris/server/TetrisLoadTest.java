@@ -0,0 +1,294 @@
+package main.tetris.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import main.tetris.core.TetrisImpl;
+import main.tetris.core.TetrisPolicy;
+
+/**
+ * This class connects a growing amount of sessions to a {@link TetrisServer} and measures
+ * how long it takes from sending an input frame until the message that used it arrives.
+ *
+ * <p>
+ *
+ * Every session sends {@link TetrisPolicy#random random} input at 60 frames per second from a
+ * single thread. For every amount of sessions the p50 and p99 input latency is printed together
+ * with the p50 and p99 time the server needed to tick all games of a frame. The random input
+ * loses quickly, and a session whose game is over is replaced with a new game so the amount of
+ * sessions stays the same. A connection that closes before its game is over counts as an error.
+ *
+ * <p>
+ *
+ * The arguments are <code>--sessions &lt;a,b,c&gt;</code>, the amounts of sessions to measure,
+ * <code>--seconds &lt;n&gt;</code>, how long every amount is measured, and <code>--port &lt;n&gt;</code>
+ * to use a server that is already running. Without a port a server is started in the same process.
+ */
+public class TetrisLoadTest {
+	/**
+	 * Every session remembers when its last input frames were sent.
+	 */
+	private static final int HISTORY = 1024;
+	
+	private static class Client {
+		final SocketChannel channel;
+		final TetrisPolicy policy;
+		
+		final ByteBuffer input = ByteBuffer.allocate(TetrisSession.OUTPUT_CAPACITY);
+		final ByteBuffer output = ByteBuffer.allocate(HISTORY);
+		final long[] sent = new long[HISTORY];
+		int sequence;
+		int acknowledged;
+		boolean over;
+		
+		Client(SocketChannel channel, long seed) {
+			this.channel = channel;
+			this.policy = TetrisPolicy.random(seed);
+		}
+	}
+	
+	private final Selector selector;
+	private final InetSocketAddress address;
+	private final List<Client> clients = new ArrayList<Client>();
+	
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private long errors;
+	private long finished;
+	private long games;
+	
+	public TetrisLoadTest(int port) throws IOException {
+		selector = Selector.open();
+		address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+	}
+	
+	/**
+	 * Opens new sessions until there are <code>count</code> of them.
+	 */
+	public void connect(int count) throws IOException {
+		while(clients.size() < count) {
+			clients.add(open());
+		}
+	}
+	
+	/**
+	 * Opens a session with a new game.
+	 */
+	private Client open() throws IOException {
+		SocketChannel channel = SocketChannel.open(address);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		
+		Client client = new Client(channel, games);
+		
+		ByteBuffer seed = ByteBuffer.allocate(8).putLong(0, games++);
+		while(seed.hasRemaining()) channel.write(seed);
+		
+		channel.configureBlocking(false);
+		channel.register(selector, SelectionKey.OP_READ, client);
+		
+		return client;
+	}
+	
+	/**
+	 * Closes the session of <code>client</code> and starts a new game in its place.
+	 */
+	private void replace(Client client) throws IOException {
+		if(client.over) finished ++;
+		else errors ++;
+		
+		client.channel.close();
+		clients.set(clients.indexOf(client), open());
+	}
+	
+	/**
+	 * Sends one input frame for every session each frame and reads all messages for
+	 * <code>nanos</code> nanoseconds.
+	 */
+	public void run(long nanos) throws IOException {
+		long start = System.nanoTime();
+		long next = start;
+		
+		while(System.nanoTime() - start < nanos) {
+			long now = System.nanoTime();
+			
+			if(now - next >= 0) {
+				if(now - next > TetrisImpl.TICK_NANOS * TetrisImpl.MAX_CATCHUP) {
+					next = now;
+				}
+				
+				send(now);
+				next += TetrisImpl.TICK_NANOS;
+			}
+			
+			// The messages are read even when the frames are late
+			long wait = next - System.nanoTime();
+			if(wait >= 1000000) selector.select(wait / 1000000);
+			else {
+				selector.selectNow();
+				if(selector.selectedKeys().isEmpty() && wait > 0) LockSupport.parkNanos(wait);
+			}
+			
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while(keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				
+				if(key.isValid() && key.isReadable()) read((Client)key.attachment());
+			}
+		}
+	}
+	
+	private void send(long now) throws IOException {
+		for(int i = 0; i < clients.size(); i++) {
+			Client client = clients.get(i);
+			
+			// Don't send more than the history can remember
+			if(client.sequence - client.acknowledged >= HISTORY) continue;
+			
+			client.output.put((byte)client.policy.getInput(null));
+			client.sent[client.sequence & (HISTORY - 1)] = now;
+			client.sequence ++;
+			
+			client.output.flip();
+			try {
+				client.channel.write(client.output);
+			} catch(IOException e) {
+				// The game ended and the server closed the connection
+				replace(client);
+				continue;
+			}
+			client.output.compact();
+		}
+	}
+	
+	private void read(Client client) throws IOException {
+		int read;
+		try {
+			read = client.channel.read(client.input);
+		} catch(IOException e) {
+			read = -1;
+		}
+		
+		if(read < 0) {
+			replace(client);
+			return;
+		}
+		
+		long now = System.nanoTime();
+		
+		ByteBuffer input = client.input;
+		input.flip();
+		
+		while(input.remaining() >= 2) {
+			int length = input.getShort(input.position());
+			if(input.remaining() < length + 2) break;
+			
+			int start = input.position() + 2;
+			int consumed = input.getInt(start);
+			if(getLength(input, start + 4) != length) errors ++;
+			if((input.get(start + 4) & TetrisServer.GAME_OVER) != 0) client.over = true;
+			
+			for(; client.acknowledged < consumed; client.acknowledged++) {
+				latency.record(now - client.sent[client.acknowledged & (HISTORY - 1)]);
+			}
+			
+			input.position(start + length);
+		}
+		
+		input.compact();
+		
+		if(client.over) replace(client);
+	}
+	
+	/**
+	 * Returns the length a message should have from the mask at <code>index</code>.
+	 */
+	private static int getLength(ByteBuffer input, int index) {
+		int mask = input.get(index);
+		
+		int length = 4 + 1;
+		if((mask & TetrisServer.PIECE) != 0) length += 4;
+		if((mask & TetrisServer.QUEUE) != 0) length += 2;
+		if((mask & TetrisServer.ROWS) != 0) length += 1 + input.get(index + length - 4) * 3;
+		if((mask & TetrisServer.SCORE) != 0) length += 12;
+		
+		return length;
+	}
+	
+	public void close() throws IOException {
+		for(Client client : clients) {
+			client.channel.close();
+		}
+		
+		selector.close();
+	}
+	
+	public static void main(String[] args) throws IOException {
+		String sessions = "100,500,1000,2000,5000";
+		int seconds = 5;
+		int port = -1;
+		
+		for(int i = 0; i < args.length; i++) {
+			switch(args[i]) {
+				case "--sessions": sessions = args[++i]; break;
+				case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+				case "--port": port = Integer.parseInt(args[++i]); break;
+				default: throw new IllegalArgumentException("Unknown argument '" + args[i] + "'");
+			}
+		}
+		
+		TetrisServer server = null;
+		if(port < 0) {
+			server = new TetrisServer(0);
+			server.start();
+			port = server.getPort();
+		}
+		
+		TetrisLoadTest test = new TetrisLoadTest(port);
+		
+		System.out.println("sessions  input p50  input p99  frame p50  frame p99  frame max  overruns  errors  games over");
+		for(String value : sessions.split(",")) {
+			int count = Integer.parseInt(value.trim());
+			test.connect(count);
+			
+			// Let the new sessions start before measuring
+			test.run(1000000000L);
+			test.latency.reset();
+			test.errors = 0;
+			test.finished = 0;
+			
+			long overruns = 0;
+			if(server != null) {
+				server.getFrameTimes().reset();
+				overruns = server.getOverruns();
+			}
+			
+			test.run(seconds * 1000000000L);
+			
+			if(server != null) {
+				LatencyHistogram frames = server.getFrameTimes();
+				System.out.printf("%8d  %6.2f ms  %6.2f ms  %6.2f ms  %6.2f ms  %6.2f ms  %8d  %6d  %10d%n",
+					count, test.latency.getPercentile(50), test.latency.getPercentile(99),
+					frames.getPercentile(50), frames.getPercentile(99), frames.getMax(),
+					server.getOverruns() - overruns, test.errors, test.finished
+				);
+			} else {
+				System.out.printf("%8d  %6.2f ms  %6.2f ms  %9s  %9s  %9s  %8s  %6d  %10d%n",
+					count, test.latency.getPercentile(50), test.latency.getPercentile(99), "-", "-", "-", "-", test.errors, test.finished
+				);
+			}
+		}
+		
+		test.close();
+		if(server != null) server.close();
+	}
+}
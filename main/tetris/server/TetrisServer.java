@@ -0,0 +1,284 @@
+package main.tetris.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import main.tetris.core.TetrisImpl;
+
+/**
+ * This class hosts many {@link main.tetris.core.TetrisSimulator TetrisSimulator} games over TCP on the loopback interface.
+ *
+ * <p>
+ *
+ * All sessions share a single thread that both handles the connections with a {@link Selector}
+ * and ticks every game once per frame at the cadence of {@link TetrisImpl#UNIT}. No thread is
+ * created per session so thousands of sessions only cost their games and buffers.
+ *
+ * <p>
+ *
+ * A client first sends the seed of its game as a big-endian <code>long</code> and then one byte
+ * for every frame with the {@link main.tetris.core.TetrisSimulatorImpl#tick(int) packed input} of
+ * that frame. The games run in lockstep with their clients: every input byte advances the game
+ * exactly one frame and a game never advances without input, so the input frame <code>n</code>
+ * is always used on frame <code>n</code> of the game. Every frame of the server uses the inputs
+ * that have arrived, at most {@link TetrisSession#MAX_INPUTS_PER_FRAME}, so a client whose
+ * inputs arrived late catches up over the next frames.
+ *
+ * <p>
+ *
+ * After every frame where the game changed or an input was used the server sends a message:
+ *
+ * <ul>
+ *   <li><code>short</code> the length of the rest of the message</li>
+ *   <li><code>int</code> the amount of input frames used so far, which is also the amount of frames the game has advanced</li>
+ *   <li><code>byte</code> a mask of the parts that follow</li>
+ *   <li>{@link #PIECE}: <code>byte</code> current tetromino, x, y and rotation</li>
+ *   <li>{@link #QUEUE}: <code>byte</code> next and held tetromino, <code>-1</code> if nothing is held</li>
+ *   <li>{@link #ROWS}: <code>byte</code> the amount of rows followed by a <code>byte</code> row and <code>short</code> mask for each changed row</li>
+ *   <li>{@link #SCORE}: <code>int</code> score, lines and level</li>
+ *   <li>{@link #GAME_OVER}: nothing, the game is over</li>
+ * </ul>
+ *
+ * The first message contains everything except the empty rows. A game is never reset, when it
+ * is over the server sends the message with {@link #GAME_OVER} and then closes the connection.
+ */
+public class TetrisServer implements Runnable {
+	public static final int DEFAULT_PORT = 7373;
+	
+	public static final int PIECE     = 1;
+	public static final int QUEUE     = 2;
+	public static final int ROWS      = 4;
+	public static final int SCORE     = 8;
+	public static final int GAME_OVER = 16;
+	
+	/**
+	 * This is the largest possible message, when every part is sent and all 40 rows changed.
+	 */
+	public static final int MAX_MESSAGE_SIZE = 2 + 4 + 1 + 4 + 2 + 1 + 40 * 3 + 12;
+	
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	private final List<TetrisSession> sessions = new ArrayList<TetrisSession>();
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(TetrisSession.INPUT_CAPACITY);
+	
+	/**
+	 * This is the time from the start of a frame until every game has been ticked
+	 * and every message has been written.
+	 */
+	private final LatencyHistogram frameTimes = new LatencyHistogram();
+	
+	private volatile boolean running = true;
+	private volatile int sessionCount;
+	private volatile long frames;
+	private volatile long overruns;
+	
+	/**
+	 * Creates a server listening on the loopback interface. A port of <code>0</code>
+	 * picks any free port.
+	 */
+	public TetrisServer(int port) throws IOException {
+		selector = Selector.open();
+		
+		server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+	}
+	
+	/**
+	 * Starts the server on a new thread and returns that thread.
+	 */
+	public Thread start() {
+		Thread thread = new Thread(this, "Tetris Server");
+		thread.setDaemon(true);
+		thread.start();
+		
+		return thread;
+	}
+	
+	public void run() {
+		long next = System.nanoTime();
+		
+		try {
+			while(running) {
+				long now = System.nanoTime();
+				
+				if(now - next >= 0) {
+					if(now - next > TetrisImpl.TICK_NANOS * TetrisImpl.MAX_CATCHUP) {
+						next = now;
+					}
+					
+					tick();
+					frameTimes.record(System.nanoTime() - next);
+					
+					if(System.nanoTime() - next > TetrisImpl.TICK_NANOS) overruns ++;
+					next += TetrisImpl.TICK_NANOS;
+				}
+				
+				// The connections are handled even when the frames are late
+				long wait = next - System.nanoTime();
+				if(wait >= 1000000) selector.select(wait / 1000000);
+				else {
+					selector.selectNow();
+					if(selector.selectedKeys().isEmpty() && wait > 0) LockSupport.parkNanos(wait);
+				}
+				
+				handleKeys();
+			}
+		} catch(IOException e) {
+			e.printStackTrace();
+		} finally {
+			for(TetrisSession session : sessions) {
+				session.close();
+			}
+			
+			try {
+				selector.close();
+				server.close();
+			} catch(IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	private void handleKeys() throws IOException {
+		Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+		while(keys.hasNext()) {
+			SelectionKey key = keys.next();
+			keys.remove();
+			
+			if(!key.isValid()) continue;
+			
+			if(key.isAcceptable()) {
+				accept();
+				continue;
+			}
+			
+			TetrisSession session = (TetrisSession)key.attachment();
+			try {
+				if(key.isReadable() && !session.read(buffer)) {
+					remove(session);
+					continue;
+				}
+				
+				if(key.isValid() && key.isWritable()) {
+					session.flush();
+					if(session.isFinished()) remove(session);
+				}
+			} catch(IOException e) {
+				remove(session);
+			}
+		}
+	}
+	
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while((channel = server.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			
+			SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+			TetrisSession session = new TetrisSession(channel, key);
+			key.attach(session);
+			
+			sessions.add(session);
+			sessionCount = sessions.size();
+		}
+	}
+	
+	/**
+	 * Ticks every started game and sends the changes to its client. A session is closed
+	 * once the message that its game is over has been written.
+	 */
+	private void tick() {
+		for(int i = 0; i < sessions.size(); i++) {
+			TetrisSession session = sessions.get(i);
+			if(!session.isStarted()) continue;
+			
+			try {
+				session.tick();
+				session.writeDelta();
+				session.flush();
+				
+				if(session.isFinished()) {
+					remove(session);
+					i --;
+				}
+			} catch(IOException e) {
+				remove(session);
+				i --;
+			}
+		}
+		
+		frames ++;
+	}
+	
+	private void remove(TetrisSession session) {
+		session.close();
+		
+		sessions.remove(session);
+		sessionCount = sessions.size();
+	}
+	
+	/**
+	 * Stops the server and closes every connection.
+	 */
+	public void close() {
+		running = false;
+		selector.wakeup();
+	}
+	
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+	
+	public int getSessions() {
+		return sessionCount;
+	}
+	
+	public long getFrames() {
+		return frames;
+	}
+	
+	/**
+	 * Returns the amount of frames that took longer than {@link TetrisImpl#TICK_NANOS} to finish.
+	 */
+	public long getOverruns() {
+		return overruns;
+	}
+	
+	public LatencyHistogram getFrameTimes() {
+		return frameTimes;
+	}
+	
+	/**
+	 * Runs a server until the process is stopped. The only argument is <code>--port &lt;n&gt;</code>.
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		
+		for(int i = 0; i < args.length; i++) {
+			switch(args[i]) {
+				case "--server": break;
+				case "--port": port = Integer.parseInt(args[++i]); break;
+				default: throw new IllegalArgumentException("Unknown argument '" + args[i] + "'");
+			}
+		}
+		
+		TetrisServer server = new TetrisServer(port);
+		System.out.println("Listening on port " + server.getPort());
+		
+		server.run();
+	}
+}
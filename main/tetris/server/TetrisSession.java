@@ -0,0 +1,254 @@
+package main.tetris.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import main.tetris.core.TetrisSimulator;
+import main.tetris.core.Tetromino;
+
+/**
+ * This class is one connection to a {@link TetrisServer} and the game played on it.
+ * Everything in a session is only touched by the thread of the server.
+ *
+ * @see TetrisServer
+ */
+public class TetrisSession {
+	/**
+	 * This is the amount of input frames that can wait in a session before the server
+	 * stops reading from the connection.
+	 */
+	public static final int INPUT_CAPACITY = 256;
+	
+	/**
+	 * This is the size of the output buffer. A client that falls so far behind that the
+	 * buffer gets full is disconnected.
+	 */
+	public static final int OUTPUT_CAPACITY = 1 << 16;
+	
+	/**
+	 * This is the largest amount of input frames used in a single frame of the server, so
+	 * a client whose inputs arrived late catches up this many frames at a time.
+	 */
+	public static final int MAX_INPUTS_PER_FRAME = 4;
+	
+	private final SocketChannel channel;
+	private final SelectionKey key;
+	
+	private final ByteBuffer seed = ByteBuffer.allocate(8);
+	private final byte[] inputs = new byte[INPUT_CAPACITY];
+	private int head;
+	private int tail;
+	
+	private final ByteBuffer output = ByteBuffer.allocate(OUTPUT_CAPACITY);
+	
+	private TetrisSimulator tetris;
+	private int consumed;
+	private int acknowledged;
+	private boolean sent;
+	
+	/**
+	 * These are the values last sent to the client.
+	 */
+	private final int[] rows;
+	private long version = -1;
+	private int current;
+	private int next;
+	private int holding;
+	private int x;
+	private int y;
+	private int r;
+	private int score;
+	private int lines;
+	private int level;
+	private boolean gameOver;
+	
+	TetrisSession(SocketChannel channel, SelectionKey key) {
+		this.channel = channel;
+		this.key = key;
+		
+		rows = new int[40];
+	}
+	
+	/**
+	 * Returns <code>true</code> once the seed has been received and the game has started.
+	 */
+	public boolean isStarted() {
+		return tetris != null;
+	}
+	
+	public TetrisSimulator getGame() {
+		return tetris;
+	}
+	
+	/**
+	 * Reads as many input frames as there is room for. Returns <code>false</code> if the
+	 * connection was closed by the client.
+	 */
+	boolean read(ByteBuffer buffer) throws IOException {
+		if(tetris == null) {
+			if(channel.read(seed) < 0) return false;
+			if(seed.hasRemaining()) return true;
+			
+			tetris = new TetrisSimulator(seed.getLong(0));
+			tetris.autoReset = false;
+		}
+		
+		int free = INPUT_CAPACITY - (tail - head);
+		if(free == 0) {
+			// Stop reading until the game has used some of the inputs
+			key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+			return true;
+		}
+		
+		buffer.clear().limit(free);
+		int read = channel.read(buffer);
+		if(read < 0) return false;
+		
+		for(int i = 0; i < read; i++) {
+			inputs[(tail++) & (INPUT_CAPACITY - 1)] = buffer.get(i);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns <code>true</code> once the game is over and the message saying so has been
+	 * written to the connection, so the session can be closed.
+	 */
+	boolean isFinished() {
+		return gameOver && output.position() == 0;
+	}
+	
+	/**
+	 * Advances the game one frame for every input frame that has arrived, at most
+	 * {@link #MAX_INPUTS_PER_FRAME}. The game only advances on input, so the input frame
+	 * <code>n</code> of the client is always used on frame <code>n</code> of the game and
+	 * the game waits when the client hasn't sent a new frame in time. The inputs that
+	 * arrive after the game is over are not used.
+	 */
+	void tick() {
+		for(int count = 0; head != tail && count < MAX_INPUTS_PER_FRAME && !tetris.isGameOver(); count++) {
+			tetris.tick(inputs[(head++) & (INPUT_CAPACITY - 1)] & 0xff);
+			consumed ++;
+		}
+		
+		if((key.interestOps() & SelectionKey.OP_READ) == 0) {
+			key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+		}
+	}
+	
+	/**
+	 * Writes the changes since the last message to the output buffer. Nothing is written
+	 * if neither the game nor the amount of used input frames has changed.
+	 *
+	 * @see TetrisServer
+	 */
+	void writeDelta() throws IOException {
+		if(output.remaining() < TetrisServer.MAX_MESSAGE_SIZE) {
+			throw new IOException("The client is not reading its messages");
+		}
+		
+		int start = output.position();
+		output.position(start + 2);
+		output.putInt(consumed);
+		
+		int mask = output.position();
+		output.put((byte)0);
+		
+		int changes = 0;
+		
+		Tetromino c = tetris.getCurrentTetromino();
+		if(c.id != current || tetris.getX() != x || tetris.getY() != y || tetris.getRotation() != r || !sent) {
+			current = c.id;
+			x = tetris.getX();
+			y = tetris.getY();
+			r = tetris.getRotation();
+			
+			output.put((byte)current).put((byte)x).put((byte)y).put((byte)r);
+			changes |= TetrisServer.PIECE;
+		}
+		
+		Tetromino h = tetris.getHoldTetromino();
+		int hold = h == null ? -1:h.id;
+		if(tetris.getNextTetromino().id != next || hold != holding || !sent) {
+			next = tetris.getNextTetromino().id;
+			holding = hold;
+			
+			output.put((byte)next).put((byte)holding);
+			changes |= TetrisServer.QUEUE;
+		}
+		
+		if(tetris.getVersion() != version) {
+			version = tetris.getVersion();
+			
+			int count = output.position();
+			output.put((byte)0);
+			
+			int changed = 0;
+			for(int i = 0; i < rows.length; i++) {
+				int row = tetris.getRowMask(i);
+				if(row == rows[i]) continue;
+				
+				rows[i] = row;
+				output.put((byte)i).putShort((short)row);
+				changed ++;
+			}
+			
+			if(changed > 0) {
+				output.put(count, (byte)changed);
+				changes |= TetrisServer.ROWS;
+			} else output.position(count);
+		}
+		
+		if(tetris.getScore() != score || tetris.getLines() != lines || tetris.getLevel() != level || !sent) {
+			score = tetris.getScore();
+			lines = tetris.getLines();
+			level = tetris.getLevel();
+			
+			output.putInt(score).putInt(lines).putInt(level);
+			changes |= TetrisServer.SCORE;
+		}
+		
+		if(tetris.isGameOver() && !gameOver) {
+			gameOver = true;
+			changes |= TetrisServer.GAME_OVER;
+		}
+		
+		if(changes == 0 && consumed == acknowledged) {
+			output.position(start);
+			return;
+		}
+		
+		output.put(mask, (byte)changes);
+		output.putShort(start, (short)(output.position() - start - 2));
+		acknowledged = consumed;
+		sent = true;
+	}
+	
+	/**
+	 * Writes as much of the output buffer as the connection accepts and waits for
+	 * the connection to become writable if anything is left.
+	 */
+	void flush() throws IOException {
+		if(output.position() == 0) return;
+		
+		output.flip();
+		channel.write(output);
+		output.compact();
+		
+		if(output.position() > 0) key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+		else key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+	}
+	
+	void close() {
+		key.cancel();
+		
+		try {
+			channel.close();
+		} catch(IOException e) {
+			// The connection is already gone
+		}
+	}
+}
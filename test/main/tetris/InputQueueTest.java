@@ -0,0 +1,45 @@
+package main.tetris;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class InputQueueTest {
+	/**
+	 * Checks that a power of two is kept as the capacity and everything else is rounded up.
+	 */
+	@Test
+	public void capacityIsRoundedUpToAPowerOfTwo() {
+		int[][] capacities = { { 1, 2 }, { 2, 2 }, { 3, 4 }, { 4, 4 }, { 5, 8 }, { 1000, 1024 }, { 1024, 1024 }, { 1025, 2048 } };
+		
+		for(int[] capacity : capacities) {
+			InputQueue queue = new InputQueue(capacity[0]);
+			
+			int events = 0;
+			while(queue.offer(events, events)) events ++;
+			
+			assertEquals(capacity[1], events, "Events held by a queue of capacity " + capacity[0]);
+		}
+	}
+	
+	/**
+	 * Checks that the events are read in the order they were added.
+	 */
+	@Test
+	public void eventsAreReadInOrder() {
+		InputQueue queue = new InputQueue(4);
+		
+		for(int round = 0; round < 3; round++) {
+			for(int i = 0; i < 4; i++) queue.offer(round * 4 + i, i);
+			
+			for(int i = 0; i < 4; i++) {
+				assertEquals(round * 4 + i, queue.peekEvent());
+				assertEquals(i, queue.peekTime());
+				queue.remove();
+			}
+			
+			assertTrue(queue.isEmpty());
+		}
+	}
+}
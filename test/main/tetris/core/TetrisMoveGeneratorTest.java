@@ -0,0 +1,79 @@
+package main.tetris.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class TetrisMoveGeneratorTest {
+	private static final int BOARDS = 300;
+	
+	/**
+	 * Checks on boards from games played with random input that every path leads to its
+	 * placement, that every placement rests on something and that no two placements fill
+	 * the same cells.
+	 */
+	@Test
+	public void pathsReachDistinctPlacements() {
+		TetrisSimulator tetris = new TetrisSimulator(0);
+		TetrisPolicy policy = TetrisPolicy.random(0);
+		TetrisMoveGenerator generator = new TetrisMoveGenerator(tetris);
+		int[] path = new int[tetris.getWidth() * tetris.getHeight() * 4];
+		
+		for(int b = 0; b < BOARDS; b++) {
+			for(int i = 0; i < 40; i++) tetris.tick(policy.getInput(tetris));
+			
+			int sx = tetris.x;
+			int sy = tetris.y;
+			int sr = tetris.r;
+			Set<String> cells = new HashSet<>();
+			
+			int count = generator.generate(tetris);
+			for(int p = 0; p < count; p++) {
+				String message = "Placement " + p + " of board " + b;
+				int x = generator.getX(p);
+				int y = generator.getY(p);
+				int r = generator.getRotation(p);
+				
+				int length = generator.getPath(p, path);
+				for(int i = 0; i < length; i++) {
+					assertTrue(move(tetris, path[i]), message + " has a move that is blocked");
+				}
+				
+				assertEquals(x, tetris.x, message);
+				assertEquals(y, tetris.y, message);
+				assertEquals(r, tetris.r, message);
+				assertTrue(tetris.isLocationBlocked(x, y - 1, r), message + " can fall further");
+				assertTrue(cells.add(getCells(tetris.current, x, y, r)), message + " fills the same cells as another placement");
+				
+				tetris.x = sx;
+				tetris.y = sy;
+				tetris.r = sr;
+			}
+		}
+	}
+	
+	private static boolean move(Tetris tetris, int move) {
+		switch(move) {
+			case TetrisSimulatorImpl.LEFT: return tetris.collisionMovement(tetris.x - 1, tetris.y);
+			case TetrisSimulatorImpl.RIGHT: return tetris.collisionMovement(tetris.x + 1, tetris.y);
+			case TetrisSimulatorImpl.SOFTDROP: return tetris.collisionMovement(tetris.x, tetris.y - 1);
+			case TetrisSimulatorImpl.ROTATE_LEFT: return tetris.collisionRotation((tetris.r + 1) & 3);
+			case TetrisSimulatorImpl.ROTATE_RIGHT: return tetris.collisionRotation((tetris.r - 1) & 3);
+			case TetrisSimulatorImpl.ROTATE_FLIP: return tetris.collisionRotation((tetris.r + 2) & 3);
+			default: throw new AssertionError("Unknown move " + move);
+		}
+	}
+	
+	private static String getCells(Tetromino t, int x, int y, int r) {
+		StringBuilder cells = new StringBuilder();
+		for(int i = t.getMinY(r); i <= t.getMaxY(r); i++) {
+			cells.append(y + i).append(':').append(x < 0 ? t.getRowMask(r, i) >> -x:t.getRowMask(r, i) << x).append(' ');
+		}
+		
+		return cells.toString();
+	}
+}
@@ -0,0 +1,102 @@
+package main.tetris.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class TetrisRecordTest {
+	private static final int GAMES = 100;
+	private static final int PIECES = 500;
+	
+	/**
+	 * Plays the same games on a {@link TetrisSimulator} and on a record and checks that every
+	 * placement gives the same game. The last game of the store is used to try placements.
+	 */
+	@Test
+	public void playsLikeSimulator() {
+		TetrisStore store = new TetrisStore(GAMES + 1);
+		TetrisRecord record = new TetrisRecord(store);
+		TetrisMoveGenerator generator = new TetrisMoveGenerator(new TetrisSimulator());
+		
+		for(int g = 0; g < GAMES; g++) {
+			TetrisSimulator tetris = new TetrisSimulator(g);
+			
+			record.at(g).setSeed(g);
+			record.reset();
+			
+			for(int i = 0; i < PIECES && !tetris.isGameOver(); i++) {
+				String message = "Game " + g + " is different after piece " + i;
+				
+				if((i % 7) == 3) assertEquals(tetris.hold(), record.hold(), message);
+				
+				int count = generator.generate(tetris);
+				if(count == 0) break;
+				
+				int best = 0;
+				double bestScore = Double.NEGATIVE_INFINITY;
+				for(int j = 0; j < count; j++) {
+					store.copy(g, GAMES);
+					record.at(GAMES).place(generator.getX(j), generator.getY(j), generator.getRotation(j), false);
+					
+					double score = TetrisBot.HEIGHT_WEIGHT * record.getAggregateHeight()
+						+ TetrisBot.LINES_WEIGHT * Long.bitCount(record.getClearedRows())
+						+ TetrisBot.HOLES_WEIGHT * record.getHoles()
+						+ TetrisBot.BUMPINESS_WEIGHT * record.getBumpiness();
+					
+					if(score > bestScore) {
+						bestScore = score;
+						best = j;
+					}
+				}
+				
+				int x = generator.getX(best);
+				int y = generator.getY(best);
+				int r = generator.getRotation(best);
+				record.at(g);
+				
+				assertEquals(tetris.place(x, y, r, false), record.place(x, y, r, false), message);
+				assertEquals(tetris.getStateHash(), record.getStateHash(), message);
+				assertEquals(tetris.getScore(), record.getScore(), message);
+				assertEquals(tetris.getLines(), record.getLines(), message);
+				assertEquals(tetris.getCombo(), record.getCombo(), message);
+				assertEquals(tetris.getLevel(), record.getLevel(), message);
+				assertEquals(tetris.getLevelProgress(), record.getLevelProgress(), message);
+				assertEquals(tetris.getPieces(), record.getPieces(), message);
+				assertEquals(tetris.getX(), record.getX(), message);
+				assertEquals(tetris.getY(), record.getY(), message);
+				assertEquals(tetris.getHoles(), record.getHoles(), message);
+			}
+		}
+	}
+	
+	/**
+	 * Checks that the version belongs to the game, so a record sees the changes made by
+	 * another record and by {@link TetrisStore#copy}. Every game is a copy of the previous one with
+	 * one more piece, so the later games top out and are reset, which changes the version as well.
+	 */
+	@Test
+	public void versionFollowsTheGame() {
+		TetrisStore store = new TetrisStore(GAMES);
+		TetrisRecord record = new TetrisRecord(store);
+		TetrisRecord other = new TetrisRecord(store);
+		
+		for(int g = 0; g < GAMES; g++) {
+			record.at(g).setSeed(g);
+			record.reset();
+		}
+		
+		for(int g = 0; g < GAMES - 1; g++) {
+			long version = other.at(g).getVersion();
+			int x = record.at(g).getX();
+			int r = record.getRotation();
+			record.place(x, record.getY() - TetrisRecord.dropDistance(record, x, r), r, false);
+			assertNotEquals(version, other.getVersion(), "A placement in game " + g + " was not seen by another record");
+			
+			version = other.at(g + 1).getVersion();
+			store.copy(g, g + 1);
+			assertNotEquals(version, other.getVersion(), "The copy of game " + g + " was not seen by another record");
+			assertNotEquals(record.getVersion(), other.getVersion(), "The copy of game " + g + " has the version of its source");
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package main.tetris.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TetrisReplayTest {
+	@TempDir
+	Path directory;
+	
+	/**
+	 * Checks that a replay written to a file and read again plays the recorded game.
+	 */
+	@Test
+	public void writtenReplayPlaysTheSameGame() throws IOException {
+		TetrisReplay replay = record(0, 5000);
+		Path path = directory.resolve("game.trp");
+		replay.write(path);
+		
+		TetrisReplay read = TetrisReplay.read(path);
+		assertEquals(replay.getFrames(), read.getFrames());
+		assertEquals(replay.getLength(), read.getLength());
+		assertTrue(read.verify());
+	}
+	
+	/**
+	 * Checks that a replay whose length doesn't fit in the file is refused before its
+	 * inputs are allocated.
+	 */
+	@Test
+	public void brokenLengthIsRefused() throws IOException {
+		TetrisReplay replay = record(1, 1000);
+		Path path = directory.resolve("broken.trp");
+		replay.write(path);
+		
+		byte[] file = Files.readAllBytes(path);
+		int header = file.length - replay.getLength();
+		
+		for(int length : new int[] { replay.getLength() + 1, Integer.MAX_VALUE, -1 }) {
+			ByteBuffer.wrap(file).putInt(header - 4, length);
+			Files.write(path, file);
+			
+			assertThrows(IOException.class, () -> TetrisReplay.read(path), "A length of " + length + " was read");
+		}
+	}
+	
+	private static TetrisReplay record(long seed, int frames) {
+		TetrisSimulator tetris = new TetrisSimulator(seed);
+		TetrisPolicy policy = TetrisPolicy.random(seed);
+		TetrisReplay replay = new TetrisReplay(seed, tetris);
+		
+		for(int i = 0; i < frames; i++) {
+			int input = policy.getInput(tetris);
+			replay.record(input);
+			tetris.tick(input);
+		}
+		
+		replay.finish(tetris);
+		return replay;
+	}
+}
@@ -0,0 +1,54 @@
+package main.tetris.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class TetrisSchedulerTest {
+	/**
+	 * Checks that games that are over are removed and that the groups left without games
+	 * are dropped by their workers, while the groups with running games are kept.
+	 */
+	@Test
+	public void finishedGamesAndEmptyGroupsAreDropped() throws InterruptedException {
+		TetrisScheduler scheduler = new TetrisScheduler(2, 4);
+		
+		for(int i = 0; i < 12; i++) {
+			TetrisSimulator tetris = new TetrisSimulator(i);
+			tetris.autoReset = false;
+			
+			if(i < 8) {
+				tetris.level = 29;
+				TetrisPolicy policy = TetrisPolicy.random(i);
+				while(!tetris.isGameOver()) tetris.tick(policy.getInput(tetris));
+			}
+			
+			scheduler.add(tetris, TetrisPolicy.random(i));
+		}
+		
+		assertEquals(12, scheduler.getGames());
+		assertEquals(3, getGroups(scheduler));
+		
+		scheduler.start();
+		try {
+			long deadline = System.nanoTime() + 5_000_000_000L;
+			while(getGroups(scheduler) > 1 && System.nanoTime() < deadline) Thread.sleep(10);
+			
+			assertEquals(4, scheduler.getGames(), "Games left running");
+			assertEquals(1, getGroups(scheduler), "Groups left after the games were over");
+			
+			scheduler.add(new TetrisSimulator(12), TetrisPolicy.random(12));
+			assertEquals(5, scheduler.getGames());
+			assertEquals(2, getGroups(scheduler), "The new game didn't get a new group");
+		} finally {
+			scheduler.stop();
+		}
+	}
+	
+	private static int getGroups(TetrisScheduler scheduler) {
+		int groups = 0;
+		for(int i = 0; i < scheduler.getWorkers(); i++) groups += scheduler.getGroups(i);
+		
+		return groups;
+	}
+}
@@ -0,0 +1,40 @@
+package main.tetris.core;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TetrisSimulatorArrayTest {
+	/**
+	 * Plays the same games with random input on both {@link TetrisSimulatorArray} and
+	 * {@link TetrisSimulator} objects and checks that every game stays the same after every frame.
+	 */
+	@Test
+	public void matchesSimulator() {
+		int count = 200;
+		int frames = 5000;
+		
+		long[] seeds = new long[count];
+		for(int g = 0; g < count; g++) {
+			seeds[g] = g;
+		}
+		
+		int[][] inputs = TetrisSimulatorArray.createInputs(count, frames, 0);
+		TetrisSimulator[] simulators = TetrisSimulatorArray.createSimulators(seeds);
+		TetrisSimulatorArray array = new TetrisSimulatorArray(seeds);
+		
+		TetrisState state = new TetrisState(simulators[0]);
+		for(int f = 0; f < frames; f++) {
+			for(int g = 0; g < count; g++) {
+				simulators[g].tick(inputs[f][g]);
+			}
+			
+			array.tick(inputs[f]);
+			
+			for(int g = 0; g < count; g++) {
+				int game = g, frame = f;
+				assertTrue(array.matches(g, simulators[g], state), () -> "Game " + game + " is different after frame " + frame);
+			}
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package main.tetris.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class TetrisSimulatorTest {
+	/**
+	 * Checks that a tetromino falling faster than 1G moves the gravity of its level in rows every
+	 * frame on average, counting the part of a row left over from the previous frames.
+	 */
+	@Test
+	public void fallsSeveralRowsEveryFrameAbove1G() {
+		TetrisSimulator tetris = new TetrisSimulator(0);
+		tetris.level = 14;
+		
+		int gravity = tetris.getGravity();
+		int spawn = tetris.getY();
+		while(tetris.getY() == spawn) tetris.tick(0);
+		
+		for(int frames = 1; tetris.getDropDistance() > 2; frames++) {
+			assertEquals((long)frames * gravity / TetrisImpl.GRAVITY_UNIT, spawn - tetris.getY(), "Rows fallen after " + frames + " frames");
+			tetris.tick(0);
+		}
+	}
+	
+	/**
+	 * Checks that from level 19 the tetromino lands on the first frame it falls.
+	 */
+	@Test
+	public void landsOnTheFirstFrameAt20G() {
+		for(int level = 19; level < 30; level++) {
+			TetrisSimulator tetris = new TetrisSimulator(level);
+			tetris.level = level;
+			assertEquals(TetrisImpl.GRAVITY_20G, tetris.getGravity());
+			
+			int spawn = tetris.getY();
+			while(tetris.getY() == spawn) tetris.tick(0);
+			
+			assertEquals(0, tetris.getDropDistance(), "The tetromino is still falling at level " + level);
+		}
+	}
+}
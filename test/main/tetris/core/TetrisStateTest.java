@@ -0,0 +1,59 @@
+package main.tetris.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TetrisStateTest {
+	private static final int GAMES = 200;
+	private static final int FRAMES = 600;
+	
+	/**
+	 * Checks that a game restored from a state plays exactly like the saved game and that
+	 * the {@link TetrisImpl#getVersion() version} changes every time a state is loaded.
+	 */
+	@Test
+	public void loadedGamePlaysLikeSavedGame() {
+		int[] inputs = new int[FRAMES];
+		
+		for(int g = 0; g < GAMES; g++) {
+			TetrisSimulator tetris = new TetrisSimulator(g);
+			TetrisPolicy policy = TetrisPolicy.random(g);
+			TetrisState saved = new TetrisState(tetris);
+			TetrisState played = new TetrisState(tetris);
+			
+			for(int i = 0; i < FRAMES; i++) tetris.tick(policy.getInput(tetris));
+			tetris.saveState(saved);
+			long before = tetris.getVersion();
+			
+			for(int i = 0; i < FRAMES; i++) {
+				inputs[i] = policy.getInput(tetris);
+				tetris.tick(inputs[i]);
+			}
+			tetris.saveState(played);
+			long after = tetris.getVersion();
+			
+			tetris.loadState(saved);
+			assertNotEquals(before, tetris.getVersion(), "Game " + g + " loaded the version of the state");
+			assertTrue(tetris.getVersion() > after, "Game " + g + " went back to an older version");
+			
+			for(int i = 0; i < FRAMES; i++) tetris.tick(inputs[i]);
+			tetris.saveState(saved);
+			
+			String message = "Game " + g + " played differently after loadState";
+			assertArrayEquals(played.board, saved.board, message);
+			assertEquals(played.score, saved.score, message);
+			assertEquals(played.lines, saved.lines, message);
+			assertEquals(played.current, saved.current, message);
+			assertEquals(played.next, saved.next, message);
+			assertEquals(played.x, saved.x, message);
+			assertEquals(played.y, saved.y, message);
+			assertEquals(played.r, saved.r, message);
+			assertEquals(played.frame, saved.frame, message);
+			assertEquals(played.gameOver, saved.gameOver, message);
+		}
+	}
+}
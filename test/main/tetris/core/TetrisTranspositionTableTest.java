@@ -0,0 +1,111 @@
+package main.tetris.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+public class TetrisTranspositionTableTest {
+	private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+	
+	/**
+	 * Checks that the table can be shared by many threads. Every thread stores and probes keys
+	 * from the same small set, so the same buckets are written by several threads at once. The value
+	 * stored for a key is always computed from the key, so a probe that returns anything else has
+	 * read a torn or mixed up entry.
+	 */
+	@Test
+	public void sharedTableReturnsNoTornEntries() throws InterruptedException {
+		int operations = 500000;
+		
+		TetrisTranspositionTable table = new TetrisTranspositionTable(1024);
+		LongAdder mismatches = new LongAdder();
+		
+		Thread[] workers = new Thread[THREADS];
+		for(int t = 0; t < THREADS; t++) {
+			long seed = t;
+			workers[t] = new Thread(() -> {
+				Random random = new Random(seed);
+				
+				for(int i = 0; i < operations; i++) {
+					long key = mix(random.nextInt(4096));
+					
+					if(random.nextBoolean()) {
+						table.store(key, (int)(key >>> 32), (int)(key & 7) - 2, (int)(key >>> 3 & 31),
+							(int)(key >>> 8 & 3), (key & 1024) != 0, (int)(key >>> 16 & 15)
+						);
+						
+						if((i & 1023) == 0) table.newSearch();
+					} else {
+						long entry = table.probe(key);
+						if(entry == 0) continue;
+						
+						if(TetrisTranspositionTable.getScore(entry) != (int)(key >>> 32)
+							|| TetrisTranspositionTable.getX(entry) != (int)(key & 7) - 2
+							|| TetrisTranspositionTable.getY(entry) != (int)(key >>> 3 & 31)
+							|| TetrisTranspositionTable.getRotation(entry) != (int)(key >>> 8 & 3)
+							|| TetrisTranspositionTable.isHold(entry) != ((key & 1024) != 0)
+							|| TetrisTranspositionTable.getDepth(entry) != (int)(key >>> 16 & 15)) {
+							mismatches.increment();
+						}
+					}
+				}
+			});
+			workers[t].start();
+		}
+		
+		for(Thread worker : workers) worker.join();
+		
+		assertTrue(table.getHits() > 0, "The table was never hit");
+		assertEquals(0, mismatches.sum(), "Torn or mismatched entries");
+	}
+	
+	/**
+	 * Checks that bots sharing one table on all threads play exactly like bots without a table.
+	 * Every seed is played twice so the second game can use the entries of the first.
+	 */
+	@Test
+	public void botsPlayTheSameWithASharedTable() throws InterruptedException {
+		TetrisTranspositionTable shared = TetrisTranspositionTable.ofMegabytes(16);
+		LongAdder different = new LongAdder();
+		int games = THREADS * 4;
+		int pieces = 300;
+		
+		Thread[] workers = new Thread[THREADS];
+		for(int t = 0; t < THREADS; t++) {
+			int first = t;
+			workers[t] = new Thread(() -> {
+				for(int g = first; g < games; g += THREADS) {
+					for(int k = 0; k < 2; k++) {
+						TetrisSimulator with = new TetrisSimulator(g % (games / 2));
+						TetrisSimulator without = new TetrisSimulator(g % (games / 2));
+						TetrisBot cached = new TetrisBot(with, shared);
+						TetrisBot bot = new TetrisBot(without);
+						
+						for(int i = 0; i < pieces; i++) {
+							if(cached.place(with) != bot.place(without) || with.getStateHash() != without.getStateHash()) {
+								different.increment();
+								break;
+							}
+						}
+					}
+				}
+			});
+			workers[t].start();
+		}
+		
+		for(Thread worker : workers) worker.join();
+		
+		assertTrue(shared.getHits() > 0, "The bots never used the table");
+		assertEquals(0, different.sum(), "Games played differently with a shared table");
+	}
+	
+	private static long mix(long x) {
+		x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+		x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return x ^ (x >>> 33);
+	}
+}